@@ -0,0 +1,101 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample rows shaped like the inkhouse schema.
+ */
+final class BenchmarkData {
+
+    private static final String[] SUBJECTS = {
+            "Skyline", "Sunrise", "Mountain", "River Walk", "Alamo", "Desert", "Night Market",
+            "Campus", "Downtown", "Botanical", "Coastline", "Canyon", "Harbor", "Festival"
+    };
+    private static final String[] STYLES = {
+            "Premade", "Vintage", "Minimal", "Retro", "Watercolor", "Neon", "Line Art", "Photo"
+    };
+
+    private static final String[] SIZES = {"8x10", "12x18", "18x24", "24x36"};
+    private static final String[] FINISHES = {"Matte", "Glossy", "Satin"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String style = STYLES[random.nextInt(STYLES.length)];
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            Product p = new Product();
+            p.setId(i);
+            p.setTitle(style + " " + subject + " " + i);
+            p.setDescription("A " + style.toLowerCase() + " poster of the " + subject.toLowerCase()
+                    + ", printed on archival paper. Popular premade poster #" + i + ".");
+            p.setImageUrl("https://example.com/img/" + i + ".jpg");
+            p.setBasePriceCents(999 + random.nextInt(4000));
+            p.setQtyAvailable(random.nextInt(200));
+            p.setIsActive(random.nextInt(10) != 0);
+            p.setVersion(0L);
+            p.setCreatedAt(now.minusDays(random.nextInt(365)));
+            p.setUpdatedAt(now);
+            products.add(p);
+        }
+        return products;
+    }
+
+    // 1-3 variants per product, ids following on from the products
+    static List<ProductVariant> variants(List<Product> products) {
+        Random random = new Random(11);
+        List<ProductVariant> variants = new ArrayList<>(products.size() * 2);
+        int id = products.size();
+        for (Product product : products) {
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                ProductVariant v = new ProductVariant();
+                v.setId(++id);
+                v.setProductId(product.getId());
+                v.setSizeLabel(SIZES[random.nextInt(SIZES.length)]);
+                v.setFinishLabel(FINISHES[random.nextInt(FINISHES.length)]);
+                v.setPriceCents(product.getBasePriceCents() + 500 * i);
+                v.setQtyAvailable(random.nextInt(4) == 0 ? 0 : random.nextInt(50));
+                v.setIsActive(random.nextInt(8) != 0);
+                variants.add(v);
+            }
+        }
+        return variants;
+    }
+
+    static List<Order> orders(int count) {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int subtotal = 999 + random.nextInt(20_000);
+            int discount = random.nextInt(4) == 0 ? subtotal / 10 : 0;
+            int tax = ((subtotal - discount) * 825 + 5_000) / 10_000;
+            Order o = new Order();
+            o.setId(i);
+            o.setUserId(1 + random.nextInt(5_000));
+            o.setSubtotalCents(subtotal);
+            o.setDiscountCents(discount);
+            o.setTaxRateBasis(825);
+            o.setTaxCents(tax);
+            o.setTotalCents(subtotal - discount + tax);
+            o.setStatus(random.nextInt(5) == 0 ? "fulfilled" : "placed");
+            o.setPlacedAt(now.minusMinutes(i));
+            o.setCreatedAt(now.minusMinutes(i));
+            o.setUpdatedAt(now.minusMinutes(i));
+            orders.add(o);
+        }
+        return orders;
+    }
+}
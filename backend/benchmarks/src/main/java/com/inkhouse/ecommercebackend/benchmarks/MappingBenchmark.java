@@ -0,0 +1,41 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping (Product -> ProductView), as done when the catalog
+ * snapshot is built.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(size);
+    }
+
+    @Benchmark
+    public List<ProductView> productToView() {
+        List<ProductView> views = new ArrayList<>(products.size());
+        for (Product product : products) {
+            views.add(ProductView.from(product));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,77 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.inkhouse.ecommercebackend.sevice.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discount, tax and total computation in integer cents / basis points: pricing a
+ * batch of carts from their lines, and re-taxing a batch of orders (e.g. after a
+ * tax-rate change). Both run over preallocated arrays with no per-order objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingEngineBenchmark {
+
+    @Param({"10000"})
+    public int orders;
+
+    private int[] lineStart;
+    private int[] qty;
+    private int[] unitPrice;
+    private byte[] discountType;
+    private int[] discountValue;
+
+    private int[] subtotals;
+    private int[] discounts;
+    private int[] taxes;
+    private int[] totals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        lineStart = new int[orders + 1];
+        for (int i = 0; i < orders; i++) {
+            lineStart[i + 1] = lineStart[i] + 1 + random.nextInt(5);
+        }
+        int lines = lineStart[orders];
+        qty = new int[lines];
+        unitPrice = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            qty[i] = 1 + random.nextInt(3);
+            unitPrice[i] = 999 + random.nextInt(5_000);
+        }
+        discountType = new byte[orders];
+        discountValue = new int[orders];
+        for (int i = 0; i < orders; i++) {
+            discountType[i] = (byte) random.nextInt(3);
+            discountValue[i] = discountType[i] == PricingEngine.PERCENT ? 1000 : 500;
+        }
+
+        subtotals = new int[orders];
+        discounts = new int[orders];
+        taxes = new int[orders];
+        totals = new int[orders];
+        PricingEngine.priceCarts(orders, lineStart, qty, unitPrice, discountType, discountValue,
+                PricingEngine.DEFAULT_TAX_RATE_BASIS, subtotals, discounts, taxes, totals);
+    }
+
+    @Benchmark
+    public int[] priceCarts() {
+        PricingEngine.priceCarts(orders, lineStart, qty, unitPrice, discountType, discountValue,
+                PricingEngine.DEFAULT_TAX_RATE_BASIS, subtotals, discounts, taxes, totals);
+        return totals;
+    }
+
+    @Benchmark
+    public int[] retax() {
+        PricingEngine.retax(orders, subtotals, discounts, 850, taxes, totals);
+        return totals;
+    }
+}
@@ -0,0 +1,83 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import com.inkhouse.ecommercebackend.sevice.ProductFilterIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Faceted product filter (active + price band + size + finish, with facet counts):
+ * the bitset index behind /api/products/filter versus scanning products and their
+ * variants in memory (the JOINs the query would otherwise need, minus I/O).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductFilterBenchmark {
+
+    private static final Map<ProductFilterIndex.Facet, List<String>> QUERY = Map.of(
+            ProductFilterIndex.Facet.ACTIVE, List.of("true"),
+            ProductFilterIndex.Facet.PRICE, List.of("1500-2499", "2500-3999"),
+            ProductFilterIndex.Facet.SIZE, List.of("18x24"),
+            ProductFilterIndex.Facet.FINISH, List.of("Matte"));
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ProductFilterIndex index;
+    private List<ProductView> views;
+    private Map<Integer, List<ProductVariant>> variantsByProduct;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(size);
+        List<ProductVariant> variants = BenchmarkData.variants(products);
+        views = new ArrayList<>(size);
+        for (Product product : products) {
+            views.add(ProductView.from(product));
+        }
+        variantsByProduct = new HashMap<>();
+        for (ProductVariant variant : variants) {
+            variantsByProduct.computeIfAbsent(variant.getProductId(), k -> new ArrayList<>()).add(variant);
+        }
+        index = new ProductFilterIndex(null, new int[]{1500, 2500, 4000});
+        index.rebuild(views, variants);
+    }
+
+    @Benchmark
+    public ProductFilterIndex.Result bitsetIndex() {
+        return index.filter(QUERY, null, 50);
+    }
+
+    @Benchmark
+    public List<Integer> linearScan() {
+        List<Integer> ids = new ArrayList<>();
+        for (ProductView view : views) {
+            if (!Boolean.TRUE.equals(view.isActive()) || view.basePriceCents() < 1500 || view.basePriceCents() >= 4000) {
+                continue;
+            }
+            boolean size = false;
+            boolean finish = false;
+            for (ProductVariant variant : variantsByProduct.getOrDefault(view.id(), List.of())) {
+                if (variant.getIsActive()) {
+                    size |= variant.getSizeLabel().equals("18x24");
+                    finish |= variant.getFinishLabel().equals("Matte");
+                }
+            }
+            if (size && finish && ids.size() < 50) {
+                ids.add(view.id());
+            }
+        }
+        return ids;
+    }
+}
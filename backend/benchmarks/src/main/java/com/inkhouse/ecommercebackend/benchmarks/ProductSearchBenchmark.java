@@ -0,0 +1,64 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.sevice.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product title search: the inverted index behind /api/products/search versus a
+ * linear case-insensitive "contains" scan (what LIKE '%term%' does, minus I/O).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"sky", "vintage harbor"})
+    public String query;
+
+    private ProductSearchIndex index;
+    private List<ProductView> views;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex();
+        views = new ArrayList<>(size);
+        for (Product product : BenchmarkData.products(size)) {
+            ProductView view = ProductView.from(product);
+            views.add(view);
+            index.onPut(view);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> invertedIndex() {
+        return index.search(query, 20);
+    }
+
+    @Benchmark
+    public List<Integer> linearScan() {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Integer> ids = new ArrayList<>();
+        for (ProductView view : views) {
+            if (view.title().toLowerCase(Locale.ROOT).contains(needle)) {
+                ids.add(view.id());
+                if (ids.size() == 20) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+}
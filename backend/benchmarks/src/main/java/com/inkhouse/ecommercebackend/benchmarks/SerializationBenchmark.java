@@ -0,0 +1,62 @@
+package com.inkhouse.ecommercebackend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing the list endpoints' JSON (GET /api/products, GET /api/products/summary,
+ * GET /api/orders) with an ObjectMapper configured the way Spring Boot configures it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private List<Product> products;
+    private List<ProductSummary> summaries;
+    private List<Order> orders;
+    private ObjectWriter productWriter;
+    private ObjectWriter summaryWriter;
+    private ObjectWriter orderWriter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        products = BenchmarkData.products(size);
+        summaries = products.stream().map(p -> ProductSummary.from(ProductView.from(p))).toList();
+        orders = BenchmarkData.orders(size);
+        productWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        summaryWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ProductSummary.class));
+        orderWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Order.class));
+    }
+
+    @Benchmark
+    public byte[] productList() throws Exception {
+        return productWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productSummaryList() throws Exception {
+        return summaryWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] orderList() throws Exception {
+        return orderWriter.writeValueAsBytes(orders);
+    }
+}
@@ -0,0 +1,125 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the embedded database with users, products, variants and historical orders
+ * shaped like inkhouse_schema.sql (same tables, columns, statuses and price ranges).
+ * Everything comes from one seeded Random, so the same options give the same data.
+ */
+final class DataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private static final int BATCH = 1000;
+
+    static final String[] ADJECTIVES = {"Vintage", "Neon", "Minimal", "Retro", "Abstract", "Botanical",
+            "Celestial", "Geometric", "Coastal", "Urban", "Midnight", "Golden"};
+    static final String[] SUBJECTS = {"Skyline", "Fern", "Wave", "Mountain", "Portrait", "Tiger",
+            "Map", "Sunset", "Forest", "Poster", "Bloom", "Desert"};
+    private static final String[] SIZES = {"8x10", "11x14", "16x20", "18x24", "24x36"};
+    private static final String[] FINISHES = {"Matte", "Glossy", "Canvas", "Framed"};
+    private static final String[] STATUSES = {"placed", "fulfilled", "fulfilled", "fulfilled", "cancelled"};
+
+    record Seeded(List<Integer> userIds, List<Integer> productIds) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Random random;
+
+    DataSeeder(JdbcTemplate jdbc, long seed) {
+        this.jdbc = jdbc;
+        this.random = new Random(seed);
+    }
+
+    Seeded seed(LoadTestOptions options) {
+        long start = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>(options.users());
+        for (int i = 1; i <= options.users(); i++) {
+            users.add(new Object[]{"user" + i + "@loadtest.example", "Load Test User " + i, "{noop}loadtest", now, now});
+        }
+        batch("INSERT INTO users (email, full_name, password, created_at, updated_at) VALUES (?, ?, ?, ?, ?)", users);
+        List<Integer> userIds = jdbc.queryForList("SELECT user_id FROM users ORDER BY user_id", Integer.class);
+
+        List<Object[]> products = new ArrayList<>(options.products());
+        List<Object[]> variants = new ArrayList<>(options.products() * options.variantsPerProduct());
+        List<Integer> productIds = new ArrayList<>(options.products());
+        int variantId = 1;
+        for (int id = 1; id <= options.products(); id++) {
+            String title = pick(ADJECTIVES) + " " + pick(SUBJECTS) + " Print " + id;
+            int price = 1500 + random.nextInt(60) * 100; // $15.00 - $74.00
+            products.add(new Object[]{id, title, "Art print: " + title, "/images/products/" + id + ".jpg",
+                    price, 1_000_000, true, 0L, now, now});
+            productIds.add(id);
+            for (int v = 0; v < options.variantsPerProduct(); v++) {
+                variants.add(new Object[]{variantId++, id, SIZES[v % SIZES.length], FINISHES[random.nextInt(FINISHES.length)],
+                        price + 500 * (v + 1), 1_000_000, true, 0L, now, now});
+            }
+        }
+        batch("INSERT INTO products (product_id, title, description, image_url, base_price_cents, qty_available, " +
+                "is_active, version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", products);
+        batch("INSERT INTO product_variants (variant_id, product_id, size_label, finish_label, price_cents, " +
+                "qty_available, is_active, version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", variants);
+
+        // orders spread over the last year, 1-4 lines each
+        int[][] lines = new int[options.orders()][];
+        List<Object[]> orders = new ArrayList<>(options.orders());
+        for (int i = 0; i < options.orders(); i++) {
+            int count = 1 + random.nextInt(4);
+            int[] picked = new int[count * 3]; // productId, unit price, qty
+            int subtotal = 0;
+            for (int l = 0; l < count; l++) {
+                int productId = productIds.get(random.nextInt(productIds.size()));
+                int unit = (Integer) products.get(productId - 1)[4];
+                int qty = 1 + random.nextInt(3);
+                picked[l * 3] = productId;
+                picked[l * 3 + 1] = unit;
+                picked[l * 3 + 2] = qty;
+                subtotal += unit * qty;
+            }
+            lines[i] = picked;
+            int tax = (int) (((long) subtotal * 825 + 5_000) / 10_000);
+            Timestamp placed = Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(525_600)));
+            orders.add(new Object[]{userIds.get(random.nextInt(userIds.size())), subtotal, 0, 825, tax,
+                    subtotal + tax, pick(STATUSES), placed, placed, placed});
+        }
+        batch("INSERT INTO orders (user_id, subtotal_cents, discount_cents, tax_rate_basis, tax_cents, total_cents, " +
+                "status, placed_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+        List<Integer> orderIds = jdbc.queryForList("SELECT order_id FROM orders ORDER BY order_id", Integer.class);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            int[] picked = lines[i];
+            for (int l = 0; l < picked.length; l += 3) {
+                items.add(new Object[]{orderIds.get(i), picked[l], products.get(picked[l] - 1)[1], picked[l + 1], picked[l + 2]});
+            }
+        }
+        batch("INSERT INTO order_items (order_id, product_id, title_snapshot, unit_price_cents, qty) " +
+                "VALUES (?, ?, ?, ?, ?)", items);
+
+        log.info("Seeded {} users, {} products, {} variants, {} orders ({} lines) in {} ms",
+                userIds.size(), productIds.size(), variants.size(), orderIds.size(), items.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new Seeded(userIds, productIds);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,183 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the scenario mix at the app over localhost, one virtual thread per simulated user.
+ *
+ * Closed loop by default: each user sends its next request as soon as the previous one
+ * answers. With a target rate each user instead follows a fixed schedule and latency is
+ * measured from when the request was due, not when it was sent, so a stalled server
+ * shows up in the percentiles instead of just slowing the load down.
+ *
+ * Each user works on its own slice of the seeded users, so carts never collide.
+ */
+final class LoadDriver {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // one histogram per endpoint, in nanoseconds up to a minute at 3 significant digits
+    static final class Endpoint {
+        final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final DataSeeder.Seeded data;
+    private final HttpClient client;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Scenario[] weighted;
+
+    LoadDriver(int port, LoadTestOptions options, DataSeeder.Seeded data) {
+        this.baseUrl = "http://localhost:" + port;
+        this.options = options;
+        this.data = data;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<Scenario> slots = new ArrayList<>();
+        options.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(scenario);
+            }
+        });
+        this.weighted = slots.toArray(new Scenario[0]);
+    }
+
+    /**
+     * Runs the mix for {@code length} and returns what was recorded; histograms
+     * from earlier runs (e.g. the warmup) are discarded.
+     */
+    Map<String, Histogram> run(Duration length) throws InterruptedException {
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.recorder.reset();
+            endpoint.errors.reset();
+        }
+        long deadline = System.nanoTime() + length.toNanos();
+        long intervalNanos = options.rate() > 0 ? (long) (1e9 * options.concurrency() / options.rate()) : 0;
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < options.concurrency(); u++) {
+                int worker = u;
+                users.submit(() -> user(worker, deadline, intervalNanos));
+            }
+        }
+        Map<String, Histogram> result = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> result.put(name, endpoint.recorder.getIntervalHistogram()));
+        return result;
+    }
+
+    long errors(String endpoint) {
+        Endpoint e = endpoints.get(endpoint);
+        return e == null ? 0 : e.errors.sum();
+    }
+
+    private void user(int worker, long deadline, long intervalNanos) {
+        Random random = new Random(options.seed() * 31 + worker);
+        List<Integer> myUsers = new ArrayList<>();
+        for (int i = worker; i < data.userIds().size(); i += options.concurrency()) {
+            myUsers.add(data.userIds().get(i));
+        }
+        // spread the users' schedules so they don't all fire together
+        long due = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        while (System.nanoTime() < deadline) {
+            if (intervalNanos > 0) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long scheduled = intervalNanos > 0 ? due : 0;
+            Scenario scenario = weighted[random.nextInt(weighted.length)];
+            Integer userId = myUsers.get(random.nextInt(myUsers.size()));
+            try {
+                step(scenario, userId, random, scheduled);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            due += intervalNanos;
+        }
+    }
+
+    private void step(Scenario scenario, Integer userId, Random random, long scheduled) throws InterruptedException {
+        switch (scenario) {
+            case BROWSE -> {
+                get("GET /api/products", "/api/products", scheduled);
+                get("GET /api/products/{id}", "/api/products/" + product(random), 0);
+            }
+            case SEARCH -> {
+                String term = random.nextBoolean()
+                        ? DataSeeder.ADJECTIVES[random.nextInt(DataSeeder.ADJECTIVES.length)]
+                        : DataSeeder.SUBJECTS[random.nextInt(DataSeeder.SUBJECTS.length)];
+                get("GET /api/products/search", "/api/products/search?limit=20&name=" + term.toLowerCase(), scheduled);
+            }
+            case ORDER -> post("POST /api/orders", "/api/orders",
+                    "{\"userId\":" + userId + ",\"items\":[{\"productId\":" + product(random) + ",\"qty\":1}]}", scheduled);
+            case CHECKOUT -> {
+                int lines = 1 + random.nextInt(3);
+                for (int i = 0; i < lines; i++) {
+                    post("POST /api/carts/{userId}/items", "/api/carts/" + userId + "/items",
+                            "{\"productId\":" + product(random) + ",\"qty\":" + (1 + random.nextInt(2)) + "}",
+                            i == 0 ? scheduled : 0);
+                }
+                post("POST /api/orders/checkout", "/api/orders/checkout", "{\"userId\":" + userId + "}", 0);
+            }
+            case ADMIN -> get("GET /api/orders/summary",
+                    "/api/orders/summary?limit=50&sort=" + (random.nextBoolean() ? "newest" : "largest"), scheduled);
+        }
+    }
+
+    private Integer product(Random random) {
+        return data.productIds().get(random.nextInt(data.productIds().size()));
+    }
+
+    private void get(String endpoint, String path, long scheduled) throws InterruptedException {
+        send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), scheduled);
+    }
+
+    private void post(String endpoint, String path, String json, long scheduled) throws InterruptedException {
+        send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)), scheduled);
+    }
+
+    // scheduled = when the request was due (open loop), or 0 to time from the send
+    private void send(String name, HttpRequest.Builder request, long scheduled) throws InterruptedException {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, n -> new Endpoint());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                endpoint.errors.increment();
+            }
+        } catch (IOException e) {
+            endpoint.errors.increment();
+        }
+        long end = System.nanoTime();
+        long latency = end - (scheduled > 0 ? Math.min(scheduled, start) : start);
+        endpoint.recorder.recordValue(Math.max(1, Math.min(latency, MAX_LATENCY_NANOS)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the per-endpoint summary, writes results.json (the numbers, for later
+ * comparison) and one HdrHistogram percentile file per endpoint (*.hgrm, in
+ * milliseconds; plot them at https://hdrhistogram.github.io/HdrHistogram/plotFiles.html).
+ */
+final class LoadReport {
+
+    record Row(long requests, long errors, double throughput, double p50, double p90, double p99,
+               double p999, double max) {
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadReport() {
+    }
+
+    static Map<String, Row> summarize(Map<String, Histogram> histograms, LoadDriver driver, Duration measured) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        double seconds = measured.toNanos() / 1e9;
+        histograms.forEach((endpoint, h) -> rows.put(endpoint, new Row(
+                h.getTotalCount(), driver.errors(endpoint), h.getTotalCount() / seconds,
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()))));
+        return rows;
+    }
+
+    static void print(Map<String, Row> rows, PrintStream out) {
+        out.printf("%n%-32s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        rows.forEach((endpoint, r) -> out.printf("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, r.requests(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p99(), r.p999(), r.max()));
+    }
+
+    static void write(Path dir, LoadTestOptions options, Map<String, Row> rows, Map<String, Histogram> histograms)
+            throws IOException {
+        Files.createDirectories(dir);
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("products", options.products());
+        settings.put("users", options.users());
+        settings.put("orders", options.orders());
+        settings.put("concurrency", options.concurrency());
+        settings.put("rate", options.rate());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        settings.put("seed", options.seed());
+        settings.put("mix", options.mix());
+        result.put("options", settings);
+        result.put("endpoints", rows);
+        JSON.writeValue(dir.resolve("results.json").toFile(), result);
+
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            String file = e.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(file)))) {
+                e.getValue().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+    }
+
+    /**
+     * Throughput and p99 against an earlier results.json, per endpoint present in both.
+     */
+    static void compare(Path baselineFile, Map<String, Row> rows, PrintStream out) throws IOException {
+        JsonNode baseline = JSON.readTree(baselineFile.toFile()).path("endpoints");
+        out.printf("%nvs. baseline %s%n%-32s %12s %12s%n", baselineFile, "endpoint", "req/s", "p99");
+        rows.forEach((endpoint, r) -> {
+            JsonNode before = baseline.path(endpoint);
+            if (before.isMissingNode()) {
+                return;
+            }
+            out.printf("%-32s %+11.1f%% %+11.1f%%%n", endpoint,
+                    change(before.path("throughput").asDouble(), r.throughput()),
+                    change(before.path("p99").asDouble(), r.p99()));
+        });
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import com.inkhouse.ecommercebackend.SpringbootApplication;
+import com.inkhouse.ecommercebackend.configs.IdGeneratorSeeder;
+import com.inkhouse.ecommercebackend.sevice.OrderSummaryService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test: boots the backend on an in-memory database, seeds it, runs a
+ * warmup and a measured period of mixed traffic over localhost, and reports
+ * throughput and latency per endpoint. See README.md for options.
+ *
+ * {@code java -jar loadtest.jar startup} runs the {@link StartupBenchmark} instead.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("startup")) {
+            StartupBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        List<String> appArgs = new ArrayList<>();
+        appArgs.add("--spring.profiles.active=loadtest");
+        appArgs.addAll(options.appArgs());
+        try (ConfigurableApplicationContext app = SpringApplication.run(SpringbootApplication.class,
+                appArgs.toArray(new String[0]))) {
+            JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+            DataSeeder.Seeded data = app.getBean(TransactionTemplate.class)
+                    .execute(tx -> new DataSeeder(jdbc, options.seed()).seed(options));
+            // rows were inserted behind the app's back: move the id allocators past them
+            // and build the admin read model from the seeded orders
+            app.getBean(IdGeneratorSeeder.class).seed();
+            app.getBean(OrderSummaryService.class).rebuild();
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(port, options, data);
+            System.out.printf("Warming up for %ds with %d users...%n", options.warmup().toSeconds(), options.concurrency());
+            driver.run(options.warmup());
+            System.out.printf("Measuring for %ds...%n", options.duration().toSeconds());
+            Map<String, Histogram> histograms = driver.run(options.duration());
+
+            Map<String, LoadReport.Row> rows = LoadReport.summarize(histograms, driver, options.duration());
+            LoadReport.print(rows, System.out);
+            LoadReport.write(options.out(), options, rows, histograms);
+            System.out.printf("%nResults written to %s%n", options.out().toAbsolutePath());
+            if (options.baseline() != null) {
+                LoadReport.compare(options.baseline(), rows, System.out);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options, all --name=value. Anything not listed here is handed to the
+ * Spring application, so app properties can be overridden the usual way
+ * (e.g. --spring.datasource.hikari.maximum-pool-size=20).
+ */
+record LoadTestOptions(int products,
+                       int variantsPerProduct,
+                       int users,
+                       int orders,
+                       int concurrency,
+                       double rate,
+                       Duration warmup,
+                       Duration duration,
+                       long seed,
+                       Map<Scenario, Integer> mix,
+                       Path out,
+                       Path baseline,
+                       List<String> appArgs) {
+
+    static final String USAGE = """
+            Options (defaults in brackets):
+              --products=N          products to seed [2000]
+              --variants=N          variants per product [2]
+              --users=N             users to seed [500]
+              --orders=N            historical orders to seed [20000]
+              --concurrency=N       concurrent virtual users [32]
+              --rate=N              target requests/s across all users; 0 = as fast as possible [0]
+              --warmup=S            seconds of traffic before measuring [10]
+              --duration=S          seconds measured [30]
+              --seed=N              random seed for data and traffic [42]
+              --mix=a:w,b:w         scenario weights [browse:55,search:25,order:5,checkout:10,admin:5]
+              --out=DIR             where results are written [target/loadtest]
+              --baseline=FILE       results.json of an earlier run to compare against
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        int products = 2000;
+        int variants = 2;
+        int users = 500;
+        int orders = 20_000;
+        int concurrency = 32;
+        double rate = 0;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        long seed = 42;
+        Map<Scenario, Integer> mix = parseMix("browse:55,search:25,order:5,checkout:10,admin:5");
+        Path out = Path.of("target", "loadtest");
+        Path baseline = null;
+        List<String> appArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "products" -> products = Integer.parseInt(value);
+                case "variants" -> variants = Integer.parseInt(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "orders" -> orders = Integer.parseInt(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "seed" -> seed = Long.parseLong(value);
+                case "mix" -> mix = parseMix(value);
+                case "out" -> out = Path.of(value);
+                case "baseline" -> baseline = Path.of(value);
+                default -> appArgs.add(arg);
+            }
+        }
+        if (products < 1 || users < concurrency) {
+            throw new IllegalArgumentException("Need at least one product and at least as many users as --concurrency");
+        }
+        return new LoadTestOptions(products, variants, users, orders, concurrency, rate, warmup, duration, seed,
+                mix, out, baseline, appArgs);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight, got: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.valueOf(kv[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no scenario with a positive weight");
+        }
+        return mix;
+    }
+}
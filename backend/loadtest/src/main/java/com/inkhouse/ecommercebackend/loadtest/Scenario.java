@@ -0,0 +1,17 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+/**
+ * One simulated user action. A worker picks a scenario per iteration, weighted by the mix.
+ */
+enum Scenario {
+    // catalog list, then a product page
+    BROWSE,
+    // name search
+    SEARCH,
+    // POST /api/orders with a subtotal (server computes discount/tax/total)
+    ORDER,
+    // one to three cart adds, then POST /api/orders/checkout
+    CHECKOUT,
+    // admin order list from the order_summaries read model
+    ADMIN
+}
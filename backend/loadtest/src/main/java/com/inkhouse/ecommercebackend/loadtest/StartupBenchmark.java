@@ -0,0 +1,159 @@
+package com.inkhouse.ecommercebackend.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long a new instance takes to start, in fresh JVMs, the way a scaled-out
+ * pod would: process launch until the application context is refreshed
+ * (spring.context.exit=onRefresh makes the app exit right there).
+ *
+ * The jar is first extracted with the Spring Boot jarmode tools (the layout CDS needs),
+ * and an H2 file database gets the schema once. Then each configuration is started
+ * --runs times:
+ *   dev            ddl-auto=update schema diffing, show-sql, eager beans (today's default)
+ *   prod           ddl-auto=validate, lazy beans (application-prod.properties)
+ *   prod+aot       plus AOT-generated bean definitions (only if built with -Pprod)
+ *   prod+aot+cds   plus a class-data sharing archive from a training run
+ *
+ * With --max-ms the run fails if the median of the fastest prod configuration is over
+ * budget, which is how the startup-check build profile catches regressions.
+ */
+final class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER =
+            "com.inkhouse.ecommercebackend.SpringbootApplication__ApplicationContextInitializer";
+
+    private record Config(String name, String profile, List<String> jvmArgs) {
+    }
+
+    private final Path work;
+    private final Path classpath;
+    private final Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+    private final List<String> appArgs;
+
+    private StartupBenchmark(Path work, Path classpath) {
+        this.work = work;
+        this.classpath = classpath;
+        this.appArgs = List.of(
+                "--spring.datasource.url=jdbc:h2:file:" + work.resolve("db").resolve("inkhouse").toAbsolutePath()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--jwt.secret=startup-benchmark-secret-key-minimum-256-bits-long",
+                "--server.port=0",
+                "--logging.level.root=WARN");
+    }
+
+    static void main(String[] args) throws Exception {
+        int runs = 5;
+        long maxMillis = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--runs=")) {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            } else if (arg.startsWith("--max-ms=")) {
+                maxMillis = Long.parseLong(arg.substring("--max-ms=".length()));
+            } else {
+                System.err.println("Usage: java -jar loadtest.jar startup [--runs=5] [--max-ms=N]");
+                System.exit(2);
+            }
+        }
+
+        Path jar = Path.of(System.getProperty("java.class.path")).toAbsolutePath();
+        if (!jar.toString().endsWith(".jar")) {
+            throw new IllegalStateException("Run from the packaged jar: java -jar loadtest.jar startup");
+        }
+        Path work = Files.createTempDirectory("inkhouse-startup");
+        StartupBenchmark benchmark = new StartupBenchmark(work, work.resolve("app").resolve(jar.getFileName()));
+        benchmark.extract(jar);
+        benchmark.start(new Config("schema", "dev", List.of()), "--spring.jpa.hibernate.ddl-auto=create");
+
+        List<Config> configs = new ArrayList<>();
+        configs.add(new Config("dev", "dev", List.of()));
+        configs.add(new Config("prod", "prod", List.of()));
+        List<String> fastest = List.of();
+        if (hasAotClasses()) {
+            configs.add(new Config("prod+aot", "prod", List.of("-Dspring.aot.enabled=true")));
+            fastest = List.of("-Dspring.aot.enabled=true");
+        } else {
+            System.out.println("No AOT-generated classes in the jar (build with -Pprod to include them); skipping prod+aot");
+        }
+        Path archive = work.resolve("app.jsa");
+        List<String> training = new ArrayList<>(fastest);
+        training.add("-XX:ArchiveClassesAtExit=" + archive);
+        benchmark.start(new Config("cds training", "prod", training));
+        List<String> cds = new ArrayList<>(fastest);
+        cds.add("-XX:SharedArchiveFile=" + archive);
+        configs.add(new Config(fastest.isEmpty() ? "prod+cds" : "prod+aot+cds", "prod", cds));
+
+        System.out.printf("%n%-16s %8s %8s %8s   (ms, %d runs, process start to context refreshed)%n",
+                "config", "min", "median", "max", runs);
+        long bestProdMedian = Long.MAX_VALUE;
+        for (Config config : configs) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = benchmark.start(config);
+            }
+            Arrays.sort(millis);
+            long median = millis[runs / 2];
+            System.out.printf("%-16s %8d %8d %8d%n", config.name(), millis[0], median, millis[runs - 1]);
+            if (config.profile().equals("prod")) {
+                bestProdMedian = Math.min(bestProdMedian, median);
+            }
+        }
+
+        if (maxMillis > 0 && bestProdMedian > maxMillis) {
+            System.out.printf("%nFAIL: fastest prod startup median %d ms is over the %d ms budget%n", bestProdMedian, maxMillis);
+            System.exit(1);
+        }
+    }
+
+    private static boolean hasAotClasses() {
+        try {
+            Class.forName(AOT_INITIALIZER, false, StartupBenchmark.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // Unpacks the jar into app/ with its dependencies as plain jars in app/lib
+    private void extract(Path jar) throws IOException, InterruptedException {
+        run(List.of(java.toString(), "-Djarmode=tools", "-jar", jar.toString(),
+                "extract", "--destination", work.resolve("app").toString()), "extract");
+    }
+
+    // Starts the app once and returns the wall-clock milliseconds until the process exited
+    private long start(Config config, String... extraArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.addAll(config.jvmArgs());
+        command.add("-Dspring.context.exit=onRefresh");
+        command.add("-cp");
+        command.add(classpath.toString());
+        command.add("com.inkhouse.ecommercebackend.SpringbootApplication");
+        command.add("--spring.profiles.active=" + config.profile());
+        command.addAll(appArgs);
+        command.addAll(List.of(extraArgs));
+        return run(command, config.name());
+    }
+
+    private long run(List<String> command, String name) throws IOException, InterruptedException {
+        Path log = work.resolve("last-run.log");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        int exit = process.waitFor();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (exit != 0) {
+            System.err.println(Files.readString(log));
+            throw new IllegalStateException(name + " exited with " + exit + ": " + String.join(" ", command));
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,49 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Registers the AdmissionControlFilter right after the Spring Security chain, so
+ * rate limits can be keyed by the JWT user and rejections still carry CORS headers.
+ *
+ * Per group (catalog, orders, admin): admission.&lt;group&gt;.min-limit, .max-limit and
+ * .target-latency-ms; per client (off unless admission.client.enabled=true):
+ * admission.client.rate-per-second and .burst.
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(Environment environment,
+                                                                                MeterRegistry meterRegistry) {
+        Map<AdmissionControlFilter.Group, AdmissionControlFilter.GroupLimits> limits =
+                new EnumMap<>(AdmissionControlFilter.Group.class);
+        for (AdmissionControlFilter.Group group : AdmissionControlFilter.Group.values()) {
+            String prefix = "admission." + group.name().toLowerCase() + ".";
+            limits.put(group, new AdmissionControlFilter.GroupLimits(
+                    environment.getProperty(prefix + "min-limit", Integer.class, 4),
+                    environment.getProperty(prefix + "max-limit", Integer.class, 100),
+                    environment.getProperty(prefix + "target-latency-ms", Long.class, 500L)));
+        }
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                environment.getProperty("admission.client.enabled", Boolean.class, false),
+                environment.getProperty("admission.client.rate-per-second", Double.class, 20.0),
+                environment.getProperty("admission.client.burst", Integer.class, 40),
+                environment.getProperty("admission.client.max-tracked", Integer.class, 100_000),
+                limits, meterRegistry);
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
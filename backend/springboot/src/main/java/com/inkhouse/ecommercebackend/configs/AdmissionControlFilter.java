@@ -0,0 +1,317 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load before it reaches the connection pool.
+ *
+ * Two checks, both answered without waiting:
+ * - optionally (admission.client.enabled), each client (JWT user id, else remote
+ *   address) has a token bucket; an empty bucket gets 429 with Retry-After set to
+ *   when the next token is due. Behind a proxy the remote address is the proxy's
+ *   unless server.forward-headers-strategy=native lets Tomcat take it from
+ *   X-Forwarded-For sent by a trusted proxy, so leave this off until that's set up.
+ * - each endpoint group (catalog reads, order writes, admin) has an adaptive
+ *   concurrency limit; when that many requests of the group are already running
+ *   the request gets 503 with Retry-After: 1. The limit grows by about one per
+ *   limit's worth of fast responses and shrinks by 10% when a response is slower
+ *   than the group's target latency or fails with a 5xx (AIMD), so it settles
+ *   near what the database can actually serve. Like TCP's once-per-RTT rule, only
+ *   a response to a request admitted after the last cut can cut again, so a burst
+ *   of slow responses counts once.
+ *
+ * Async and streaming handlers (e.g. /api/orders/export) keep their permit until
+ * the response completes, not just until the handler hands off to another thread.
+ *
+ * Requests outside the groups (auth, users, actuator, image downloads) pass through untouched.
+ * Metrics: admission.limit / admission.inflight (gauges, tag group),
+ * admission.rejected (counter, tags group and reason), admission.clients (gauge).
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Group { CATALOG, ORDERS, ADMIN }
+
+    record GroupLimits(int minLimit, int maxLimit, long targetLatencyMillis) {
+    }
+
+    private final boolean clientLimits;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxTrackedClients;
+    private final Map<Group, AdaptiveLimit> limits = new EnumMap<>(Group.class);
+    private final ConcurrentHashMap<Object, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Group, Counter> rateLimited = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> overloaded = new EnumMap<>(Group.class);
+
+    public AdmissionControlFilter(boolean clientLimits, double ratePerSecond, int burst, int maxTrackedClients,
+                                  Map<Group, GroupLimits> groupLimits, MeterRegistry meterRegistry) {
+        this.clientLimits = clientLimits;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxTrackedClients = maxTrackedClients;
+        for (Group group : Group.values()) {
+            GroupLimits config = groupLimits.get(group);
+            AdaptiveLimit limit = new AdaptiveLimit(config.minLimit(), config.maxLimit(), config.targetLatencyMillis() * 1_000_000);
+            limits.put(group, limit);
+            String tag = group.name().toLowerCase();
+            Gauge.builder("admission.limit", limit, AdaptiveLimit::limit).tag("group", tag).register(meterRegistry);
+            Gauge.builder("admission.inflight", limit, AdaptiveLimit::inFlight).tag("group", tag).register(meterRegistry);
+            rateLimited.put(group, meterRegistry.counter("admission.rejected", "group", tag, "reason", "rate"));
+            overloaded.put(group, meterRegistry.counter("admission.rejected", "group", tag, "reason", "concurrency"));
+        }
+        Gauge.builder("admission.clients", buckets, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = classify(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (clientLimits) {
+            long waitNanos = bucket(clientKey(request)).tryTake();
+            if (waitNanos > 0) {
+                rateLimited.get(group).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000));
+                return;
+            }
+        }
+
+        AdaptiveLimit limit = limits.get(group);
+        if (!limit.tryAcquire()) {
+            overloaded.get(group).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limit, start));
+                async = true;
+            }
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (!async) {
+                limit.release(start, System.nanoTime(), failed);
+            }
+        }
+    }
+
+    // Which limit a request counts against, or null for requests that aren't limited
+    static Group classify(String method, String path) {
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (path.startsWith("/api/products")) {
+            return read ? Group.CATALOG : Group.ADMIN;
+        }
+        if (path.startsWith("/api/images")) {
+            // serving is sendfile and never touches the database; uploads are admin work
+            return read ? null : Group.ADMIN;
+        }
+        if (path.startsWith("/api/orders/summary") || path.startsWith("/api/orders/export")
+                || path.startsWith("/api/orders/reprice") || path.startsWith("/api/orders/sales")
+                || path.equals("/api/orders/status")) {
+            return Group.ADMIN;
+        }
+        if (path.startsWith("/api/orders") || path.startsWith("/api/carts")) {
+            return Group.ORDERS;
+        }
+        return null;
+    }
+
+    int limit(Group group) {
+        return limits.get(group).limit();
+    }
+
+    int inFlight(Group group) {
+        return limits.get(group).inFlight();
+    }
+
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId();
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Bounded like the JWT cache: when full, drop buckets that have refilled (same as a new one)
+    private TokenBucket bucket(Object client) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTrackedClients) {
+            long now = System.nanoTime();
+            buckets.values().removeIf(b -> b.isFull(now));
+            if (buckets.size() >= maxTrackedClients) {
+                buckets.clear();
+            }
+        }
+        return buckets.computeIfAbsent(client, c -> new TokenBucket(ratePerSecond, burst));
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    // Gives an async request's permit back once, when the response is finished
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(AdaptiveLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(response != null && response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // a handler restarting async work keeps the same permit
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(start, System.nanoTime(), failed);
+            }
+        }
+    }
+
+    static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double ratePerSecond, int capacity) {
+            this.tokensPerNano = ratePerSecond / 1e9;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        // 0 if a token was taken, otherwise how long until one is available
+        synchronized long tryTake() {
+            long now = System.nanoTime();
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    static final class AdaptiveLimit {
+
+        private static final double BACKOFF = 0.9;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final long targetNanos;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit;
+        // guarded by this; requests admitted before this moment can't cut the limit again
+        private long lastCutNanos;
+
+        AdaptiveLimit(int minLimit, int maxLimit, long targetNanos) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.targetNanos = targetNanos;
+            this.limit = maxLimit;
+            this.lastCutNanos = System.nanoTime();
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long startNanos, long endNanos, boolean failed) {
+            int before = inFlight.getAndDecrement();
+            synchronized (this) {
+                if (failed || endNanos - startNanos > targetNanos) {
+                    if (startNanos - lastCutNanos > 0) {
+                        limit = Math.max(minLimit, limit * BACKOFF);
+                        lastCutNanos = endNanos;
+                    }
+                } else if (before * 2 >= limit) {
+                    // only grow while the limit is actually being used
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+        }
+
+        int limit() {
+            return (int) limit;
+        }
+
+        int inFlight() {
+            return inFlight.get();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Slow-query log, off unless db.slow-query.enabled=true.
+ *
+ * Repository timings (spring.data.repository.invocations), endpoint timings
+ * (http.server.requests) and Hibernate statistics (hibernate.*) come from Spring
+ * Boot's auto-configuration; see application.properties. This adds the statement
+ * level: every DataSource is wrapped in a SlowQueryLoggingDataSource that logs
+ * statements slower than db.slow-query.threshold-ms with their bound parameters.
+ * That costs every statement, fast or not, a proxy, a parameter map and a
+ * reflective call per JDBC method, so turn it on while hunting a slow query
+ * rather than leaving it on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.slow-query.enabled", havingValue = "true", matchIfMissing = false)
+public class DatabaseMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryLogger(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryLoggingDataSource)) {
+                    long threshold = environment.getProperty("db.slow-query.threshold-ms", Long.class, 200L);
+                    return new SlowQueryLoggingDataSource(dataSource, threshold, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the id_generators rows used by Product/ProductVariant start above the
+ * ids already in their tables (rows created by the SQL script or by earlier
+ * AUTO_INCREMENT inserts), so the first allocated block can't collide.
+ *
+ * Runs once the EntityManagerFactory (and so the schema) is ready, before the
+ * app takes traffic.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorSeeder {
+
+    private static final String[][] GENERATORS = {
+            {"products", "product_id"},
+            {"product_variants", "variant_id"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (String[] generator : GENERATORS) {
+            String table = generator[0];
+            String idColumn = generator[1];
+            long next = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, Long.class);
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = ? WHERE gen_name = ? AND next_val < ?",
+                    next, table, next);
+            if (updated == 0) {
+                Integer rows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM id_generators WHERE gen_name = ?", Integer.class, table);
+                if (rows == null || rows == 0) {
+                    jdbcTemplate.update("INSERT INTO id_generators (gen_name, next_val) VALUES (?, ?)", table, next);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.inkhouse.ecommercebackend.sevice.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests that carry "Authorization: Bearer <jwt>".
+ *
+ * Missing or invalid tokens just leave the request anonymous; whether that is
+ * allowed is up to the rules in SecurityConfig. Registered only in the security
+ * filter chain (not as a bean) so it doesn't run twice.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            String token = header.substring(BEARER.length()).trim();
+            jwtService.verify(token).ifPresent(user -> authenticate(user, request));
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void authenticate(AuthenticatedUser user, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, null, List.of());
+        authentication.setDetails(request.getRemoteAddr());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
@@ -0,0 +1,74 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in read-replica routing (profile "replica", db.replicas.enabled=true).
+ *
+ * Replaces the auto-configured DataSource with a ReplicaRoutingDataSource behind a
+ * LazyConnectionDataSourceProxy: @Transactional(readOnly = true) work (including
+ * Spring Data's own read methods) goes to db.replicas.urls, everything else to
+ * spring.datasource.url. Callers are pinned to the primary for
+ * db.replicas.sticky-ms after each of their write transactions, keyed by the
+ * authenticated user or, for anonymous calls, the client address.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<String> urls = binder.bind("db.replicas.urls", Bindable.listOf(String.class)).orElse(List.of());
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(environment.getProperty("db.replicas.username", properties.determineUsername()))
+                    .password(environment.getProperty("db.replicas.password", properties.determinePassword()))
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        long stickyMillis = environment.getProperty("db.replicas.sticky-ms", Long.class, 2_000L);
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, stickyMillis, ReadReplicaConfig::callerKey));
+    }
+
+    // Who "just wrote": the JWT principal if there is one, else the client address
+    static Object callerKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a replica (round robin) and everything else to the primary.
+ *
+ * Read-your-writes: when a read-write transaction commits, its caller (as identified
+ * by the stickiness key, e.g. the authenticated user) is pinned to the primary for
+ * stickyMillis, so reads right after a write don't hit a replica that hasn't caught
+ * up yet. Writes made outside a transaction (auto-commit) are not tracked.
+ *
+ * The routing decision is made when the physical connection is fetched, so this must
+ * sit behind a LazyConnectionDataSourceProxy; otherwise the transaction manager grabs
+ * the connection before the read-only flag is visible.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    // when the sticky map grows past this, expired entries are swept
+    private static final int STICKY_SWEEP_SIZE = 10_000;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long stickyMillis;
+    private final Supplier<Object> stickinessKey;
+    private final Map<Object, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    long stickyMillis, Supplier<Object> stickinessKey) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+        this.stickyMillis = stickyMillis;
+        this.stickinessKey = stickinessKey;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (replicaKeys.isEmpty() || isPinnedToPrimary()) {
+                return PRIMARY;
+            }
+            return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pinAfterCommit();
+        }
+        return PRIMARY;
+    }
+
+    private boolean isPinnedToPrimary() {
+        Object key = stickinessKey.get();
+        if (key == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        stickyUntil.remove(key, until);
+        return false;
+    }
+
+    private void pinAfterCommit() {
+        Object key = stickinessKey.get();
+        if (key == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                if (stickyUntil.size() >= STICKY_SWEEP_SIZE) {
+                    stickyUntil.values().removeIf(until -> until <= now);
+                }
+                stickyUntil.put(key, now + stickyMillis);
+            }
+        });
+    }
+}
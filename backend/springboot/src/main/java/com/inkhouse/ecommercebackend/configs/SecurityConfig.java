@@ -1,29 +1,60 @@
 package com.inkhouse.ecommercebackend.configs;
 
+import com.inkhouse.ecommercebackend.sevice.JwtService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Off until the frontend sends real tokens: requests are authenticated when they carry
+    // a valid bearer token, but anonymous ones are still let through
+    @Value("${security.jwt.required:false}")
+    private boolean jwtRequired;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtService jwtService) throws Exception {
         http
                 // If you’re calling from React without CSRF tokens, easiest is to disable CSRF for now
                 .csrf(AbstractHttpConfigurer::disable)
                 // Enable CORS so your @CrossOrigin on controllers works nicely
                 .cors(Customizer.withDefaults())
+                // Stateless: identity comes from the bearer token on each request, no HTTP session
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService), UsernamePasswordAuthenticationFilter.class)
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 // Authorization rules
-                .authorizeHttpRequests(auth -> auth
-                        .anyRequest().permitAll()   // <--- everything is allowed
-                );
+                .authorizeHttpRequests(auth -> {
+                    // uploads write to local disk, so they always need a known caller (quota is per user)
+                    auth.requestMatchers(HttpMethod.POST, "/api/images", "/api/images/**").authenticated();
+                    if (jwtRequired) {
+                        auth.requestMatchers(HttpMethod.GET, "/api/products/**", "/api/images/**").permitAll()
+                                .requestMatchers("/api/auth/**", "/users/addUser", "/actuator/health").permitAll()
+                                .anyRequest().authenticated();
+                    } else {
+                        auth.anyRequest().permitAll();   // <--- everything is allowed
+                    }
+                });
 
         return http.build();
     }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
 }
@@ -0,0 +1,135 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DataSource wrapper that times every JDBC statement and logs the ones slower than
+ * a threshold, together with their bound parameters, to the "SLOW_SQL" logger.
+ * Each slow statement also bumps the jdbc.slow.statements counter.
+ *
+ * Parameter values are truncated so large TEXT columns don't flood the log.
+ */
+public class SlowQueryLoggingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger("SLOW_SQL");
+    private static final int MAX_PARAM_LENGTH = 100;
+
+    private final long thresholdNanos;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SlowQueryLoggingDataSource(DataSource target, long thresholdMillis, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(target);
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement ps && args != null && args[0] instanceof String sql) {
+                        // prepareStatement / prepareCall: CallableStatement extends PreparedStatement
+                        Class<?> type = method.getReturnType();
+                        return wrapStatement(ps, type, sql);
+                    }
+                    if (result instanceof Statement statement) {
+                        return wrapStatement(statement, Statement.class, null);
+                    }
+                    return result;
+                });
+    }
+
+    private Object wrapStatement(Statement statement, Class<?> type, String preparedSql) {
+        Map<Integer, Object> params = new TreeMap<>();
+        int[] batchSize = {0};
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                // setNull's second argument is the SQL type, not a value
+                params.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize[0]++;
+            } else if (name.equals("clearBatch")) {
+                batchSize[0] = 0;
+            } else if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return invoke(statement, method, args);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    if (elapsed >= thresholdNanos) {
+                        String sql = preparedSql != null ? preparedSql
+                                : (args != null && args.length > 0 && args[0] instanceof String s ? s : "<unknown>");
+                        logSlow(sql, params, batchSize[0], elapsed);
+                    }
+                    if (name.equals("executeBatch")) {
+                        batchSize[0] = 0;
+                    }
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private void logSlow(String sql, Map<Integer, Object> params, int batchSize, long elapsedNanos) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("jdbc.slow.statements").increment();
+        }
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        StringBuilder bound = new StringBuilder();
+        for (Map.Entry<Integer, Object> param : params.entrySet()) {
+            if (bound.length() > 0) {
+                bound.append(", ");
+            }
+            bound.append(param.getKey()).append('=').append(abbreviate(param.getValue()));
+        }
+        log.warn("{} ms{}: {} [{}]", elapsedNanos / 1_000_000,
+                batchSize > 0 ? " (batch of " + batchSize + ", last params shown)" : "", sql, bound);
+    }
+
+    private static String abbreviate(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        String text = value instanceof String ? "'" + value + "'" : String.valueOf(value);
+        return text.length() <= MAX_PARAM_LENGTH ? text : text.substring(0, MAX_PARAM_LENGTH) + "...";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Keeps self-driven beans eager when spring.main.lazy-initialization is on (prod profile).
+ *
+ * A lazy bean is only created when something asks for it, so a bean with @Scheduled
+ * methods (inventory and cart write-behind, the outbox dispatcher, ...) would never
+ * start its timers, and a @PostConstruct startup task (IdGeneratorSeeder) would never
+ * run. Everything else can wait for its first request.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter selfDrivenBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && runsOnItsOwn(beanType);
+    }
+
+    static boolean runsOnItsOwn(Class<?> beanType) {
+        boolean[] found = {false};
+        ReflectionUtils.doWithMethods(beanType, method -> found[0] = true, StartupConfig::isSelfDriven);
+        return found[0];
+    }
+
+    private static boolean isSelfDriven(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || method.isAnnotationPresent(PostConstruct.class);
+    }
+}
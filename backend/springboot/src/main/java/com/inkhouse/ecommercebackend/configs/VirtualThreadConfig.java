@@ -0,0 +1,38 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Opt-in virtual-thread execution mode.
+ *
+ * Turned on by the "virtual" profile (spring.threads.virtual.enabled=true), which makes
+ * Tomcat run every request on its own virtual thread. Because that removes the
+ * 200-thread ceiling, the DataSource is wrapped in a ConcurrencyLimitingDataSource
+ * sized to the Hikari pool so the extra concurrency queues cheaply in the app
+ * instead of piling onto MySQL.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    int permits = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                    long timeout = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L);
+                    return new ConcurrencyLimitingDataSource(dataSource, permits, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import com.inkhouse.ecommercebackend.dto.LoginRequest;
+import com.inkhouse.ecommercebackend.dto.TokenResponse;
+import com.inkhouse.ecommercebackend.model.User;
+import com.inkhouse.ecommercebackend.sevice.JwtService;
+import com.inkhouse.ecommercebackend.sevice.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AuthController {
+
+    private final UserService userService;
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public AuthController(UserService userService, JwtService jwtService, PasswordEncoder passwordEncoder) {
+        this.userService = userService;
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * POST /api/auth/login - Exchange email + password for a bearer token
+     *
+     * Expected JSON: { "email": "ariel@example.com", "password": "..." }
+     * Send the returned token as "Authorization: Bearer <token>".
+     */
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest request) {
+        if (request.email() == null || request.password() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        User user = userService.getUserByEmail(request.email());
+        if (user == null || !passwordMatches(request.password(), user.getPassword())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(jwtService.issueToken(user));
+    }
+
+    private boolean passwordMatches(String raw, String stored) {
+        try {
+            return passwordEncoder.matches(raw, stored);
+        } catch (IllegalArgumentException e) {
+            // stored value has no "{id}" prefix (saved before passwords were hashed)
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.inkhouse.ecommercebackend.controller;
+
+/**
+ * One range from a "Range: bytes=..." header, resolved against the file length.
+ * end is inclusive, as in Content-Range.
+ */
+record ByteRange(long start, long end) {
+
+    // The range starts past the end of the file: 416
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * null when the whole file should be sent: no header, another unit, a malformed
+     * value (which HTTP says to ignore) or several ranges (answering those with the
+     * full body is allowed, and saves building a multipart response).
+     */
+    static ByteRange parse(String header, long fileLength) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // bytes=-N: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0 || fileLength == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, fileLength - suffix), fileLength - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= fileLength) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, fileLength - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
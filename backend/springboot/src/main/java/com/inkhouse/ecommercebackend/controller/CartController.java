@@ -0,0 +1,82 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import com.inkhouse.ecommercebackend.dto.CartItemRequest;
+import com.inkhouse.ecommercebackend.dto.CartView;
+import com.inkhouse.ecommercebackend.sevice.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.function.Supplier;
+
+/**
+ * Cart edits are applied in memory and written to cart_items shortly after
+ * (see CartServiceImpl), so these calls don't wait on MySQL once a cart is loaded.
+ */
+@RestController
+@RequestMapping("/api/carts")
+@CrossOrigin(origins = "http://localhost:5173")
+public class CartController {
+
+    private final CartService cartService;
+
+    @Autowired
+    public CartController(CartService cartService) {
+        this.cartService = cartService;
+    }
+
+    /**
+     * GET /api/carts/{userId} - Get a user's cart
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<CartView> getCart(@PathVariable Integer userId) {
+        return respond(() -> cartService.getCart(userId));
+    }
+
+    /**
+     * POST /api/carts/{userId}/items - Add an item (qty is added to an existing line)
+     *
+     * Expected JSON: {"productId": 3, "qty": 2}, or variantId / designId instead of productId
+     */
+    @PostMapping("/{userId}/items")
+    public ResponseEntity<CartView> addItem(@PathVariable Integer userId, @RequestBody CartItemRequest item) {
+        return respond(() -> cartService.addItem(userId, item));
+    }
+
+    /**
+     * PUT /api/carts/{userId}/items - Set an item's quantity (0 removes it)
+     */
+    @PutMapping("/{userId}/items")
+    public ResponseEntity<CartView> setQuantity(@PathVariable Integer userId, @RequestBody CartItemRequest item) {
+        return respond(() -> cartService.setQuantity(userId, item));
+    }
+
+    /**
+     * DELETE /api/carts/{userId}/items?productId=|variantId=|designId= - Remove an item
+     */
+    @DeleteMapping("/{userId}/items")
+    public ResponseEntity<CartView> removeItem(@PathVariable Integer userId,
+                                               @RequestParam(required = false) Integer productId,
+                                               @RequestParam(required = false) Integer variantId,
+                                               @RequestParam(required = false) Integer designId) {
+        return respond(() -> cartService.removeItem(userId, new CartItemRequest(productId, variantId, designId, null)));
+    }
+
+    /**
+     * DELETE /api/carts/{userId} - Empty the cart
+     */
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<CartView> clearCart(@PathVariable Integer userId) {
+        return respond(() -> cartService.clearCart(userId));
+    }
+
+    private static ResponseEntity<CartView> respond(Supplier<CartView> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.inkhouse.ecommercebackend.sevice.ImageStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ImageController {
+
+    // Tomcat request attributes (org.apache.tomcat.util.net.Constants): when set, the
+    // connector sends the file with sendfile(2) after the servlet returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String PENDING = CacheControl.maxAge(Duration.ofMinutes(1)).getHeaderValue();
+
+    private final ImageStore imageStore;
+    private final long maxUploadBytes;
+    private final UploadQuota uploadQuota;
+
+    @Autowired
+    public ImageController(ImageStore imageStore,
+                           @Value("${images.max-upload-bytes:26214400}") long maxUploadBytes,
+                           @Value("${images.upload-quota-bytes:262144000}") long uploadQuotaBytes,
+                           @Value("${images.upload-quota-window-ms:3600000}") long uploadQuotaWindowMillis) {
+        this.imageStore = imageStore;
+        this.maxUploadBytes = maxUploadBytes;
+        this.uploadQuota = new UploadQuota(uploadQuotaBytes, uploadQuotaWindowMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * POST /api/images - Upload a product image or custom poster
+     *
+     * The body is the image itself (Content-Type: image/png or image/jpeg), written to
+     * disk as it arrives. Responds 201 with {"key": "...", "url": "/api/images/{key}"};
+     * the url is what goes in products.image_url / custom_designs.image_url.
+     * Resized copies are made in the background.
+     *
+     * Needs a bearer token even when security.jwt.required is off. Each user may upload
+     * images.upload-quota-bytes per images.upload-quota-window-ms; past that, 429 with
+     * Retry-After. The declared Content-Length (images.max-upload-bytes without one)
+     * counts against it until the upload ends, then what was stored.
+     */
+    @PostMapping(consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE})
+    public ResponseEntity<Map<String, String>> uploadImage(@AuthenticationPrincipal AuthenticatedUser user,
+                                                           HttpServletRequest request,
+                                                           InputStream body) throws IOException {
+        long declared = request.getContentLengthLong();
+        UploadQuota.Grant grant = uploadQuota.reserve(user.userId(),
+                declared < 0 ? maxUploadBytes : Math.min(declared, maxUploadBytes));
+        if (!grant.granted()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(grant.retryAfterSeconds())).build();
+        }
+        long stored = 0;
+        try {
+            String key = imageStore.store(body);
+            stored = imageStore.find(key, null).map(ImageStore.Image::length).orElse(0L);
+            String url = "/api/images/" + key;
+            return ResponseEntity.created(URI.create(url)).body(Map.of("key", key, "url", url));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } finally {
+            uploadQuota.settle(user.userId(), grant, stored);
+        }
+    }
+
+    /**
+     * GET /api/images/{key}?w={width} - Serve an image, or its copy resized to one of images.variant-widths
+     *
+     * The file goes to the socket without being copied through the heap (Tomcat
+     * sendfile, FileChannel.transferTo elsewhere). A single Range gets 206 (or 416),
+     * honouring If-Range. Keys name immutable content, so responses may be cached for
+     * a year; a resized copy that isn't ready yet is answered with the original and a
+     * one-minute max-age.
+     */
+    @GetMapping("/{key}")
+    public void getImage(@PathVariable String key, @RequestParam(required = false) Integer w,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ImageStore.Image> found;
+        try {
+            found = imageStore.find(key, w);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        if (found.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        ImageStore.Image image = found.get();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.pending() ? PENDING : IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(image.etag(), image.lastModifiedMillis())) {
+            return;
+        }
+        response.setContentType(image.contentType());
+
+        ByteRange range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), image.length());
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && ifRange != null && !ifRange.equals(image.etag())) {
+            // the client's partial copy is of something else: send it all
+            range = null;
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.length());
+            return;
+        }
+        if (range == null) {
+            range = new ByteRange(0, image.length() - 1);
+        } else {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + image.length());
+        }
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+        send(image.file(), range, request, response);
+    }
+
+    private static void send(Path file, ByteRange range, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long end = range.end() + 1;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+}
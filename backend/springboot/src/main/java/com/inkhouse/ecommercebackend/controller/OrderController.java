@@ -1,13 +1,39 @@
 package com.inkhouse.ecommercebackend.controller;
 
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.inkhouse.ecommercebackend.dto.BulkStatusRequest;
+import com.inkhouse.ecommercebackend.dto.BulkStatusResult;
+import com.inkhouse.ecommercebackend.dto.CheckoutRequest;
+import com.inkhouse.ecommercebackend.dto.CheckoutResult;
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.OrderRequest;
+import com.inkhouse.ecommercebackend.dto.OrderSummaryFilter;
+import com.inkhouse.ecommercebackend.dto.SalesReport;
 import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderSummary;
+import com.inkhouse.ecommercebackend.sevice.CartService;
+import com.inkhouse.ecommercebackend.sevice.CheckoutService;
+import com.inkhouse.ecommercebackend.sevice.InsufficientStockException;
+import com.inkhouse.ecommercebackend.sevice.OrderExportService;
 import com.inkhouse.ecommercebackend.sevice.OrderService;
+import com.inkhouse.ecommercebackend.sevice.OrderSummaryService;
+import com.inkhouse.ecommercebackend.sevice.SalesRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -15,10 +41,25 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final CheckoutService checkoutService;
+    private final OrderSummaryService orderSummaryService;
+    private final CartService cartService;
+    private final SalesRollupService salesRollupService;
+    private final List<String> adminEmails;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           CheckoutService checkoutService, OrderSummaryService orderSummaryService,
+                           CartService cartService, SalesRollupService salesRollupService,
+                           @Value("${orders.admin-emails:}") List<String> adminEmails) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.checkoutService = checkoutService;
+        this.orderSummaryService = orderSummaryService;
+        this.cartService = cartService;
+        this.salesRollupService = salesRollupService;
+        this.adminEmails = adminEmails;
     }
 
     /**
@@ -27,7 +68,106 @@ public class OrderController {
     @GetMapping
     public ResponseEntity<List<Order>> getAllOrders() {
         List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+        return conditional(orders);
+    }
+
+    /**
+     * GET /api/orders?limit={n}&after={cursor} - Get one page of orders, newest first
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<Order>> getOrdersPage(@RequestParam(required = false) String after,
+                                                           @RequestParam Integer limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(after, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * GET /api/orders/export?format=ndjson|csv - Stream every order for reporting jobs
+     *
+     * Rows are written to the response as they are read from the database,
+     * so memory use doesn't depend on how many orders there are.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> orderExportService.exportOrders(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * GET /api/orders/summary?sort=newest|largest&customer=&status=&from=&to=&limit=&after= - Admin order list
+     *
+     * Served from the order_summaries read model rather than the v_orders_admin view.
+     * from/to are ISO date-times (from inclusive, to exclusive).
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<CursorPage<OrderSummary>> getOrderSummaries(
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String customer,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            OrderSummaryService.SortOrder sortOrder = OrderSummaryService.SortOrder.valueOf(sort.toUpperCase());
+            OrderSummaryFilter filter = new OrderSummaryFilter(customer, status, from, to);
+            return ResponseEntity.ok(orderSummaryService.search(filter, sortOrder, after, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /api/orders/summary/rebuild - Recompute the admin order read model from the order tables
+     */
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildOrderSummaries() {
+        return ResponseEntity.ok(Map.of("orders", orderSummaryService.rebuild()));
+    }
+
+    /**
+     * GET /api/orders/sales?from=&to=&granularity=day|hour&status= - Sales totals per day or hour
+     *
+     * from/to are ISO date-times (from inclusive, to exclusive); every day or hour that
+     * overlaps them is reported. Leave out status to add up all statuses. Served from
+     * in-memory rollups, so it doesn't touch the orders table; 503 while they are
+     * still being built after a restart.
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReport> getSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String status) {
+        try {
+            SalesRollupService.Granularity bucket = SalesRollupService.Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(salesRollupService.report(from, to, bucket, status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+
+    /**
+     * POST /api/orders/sales/rebuild - Recompute the sales rollups from the orders table
+     */
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildSalesRollups() {
+        return ResponseEntity.ok(Map.of("orders", salesRollupService.rebuild()));
     }
 
     /**
@@ -36,7 +176,8 @@ public class OrderController {
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Integer id) {
         return orderService.getOrderById(id)
-                .map(ResponseEntity::ok)
+                .map(order -> Validators.ok(Validators.etag(order), Validators.lastModified(order.getUpdatedAt()))
+                        .body(order))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -46,16 +187,100 @@ public class OrderController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Order>> getOrdersByUserId(@PathVariable Integer userId) {
         List<Order> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+        return conditional(orders);
     }
 
     /**
-     * POST /api/orders - Create a new order
+     * GET /api/orders/user/{userId}?limit={n}&after={cursor} - Get one page of a user's orders, newest first
+     */
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public ResponseEntity<CursorPage<Order>> getOrdersByUserIdPage(@PathVariable Integer userId,
+                                                                   @RequestParam(required = false) String after,
+                                                                   @RequestParam Integer limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersByUserIdPage(userId, after, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /api/orders - Create an order from explicit lines
+     *
+     * Expected JSON:
+     * {
+     *   "userId": 1,
+     *   "items": [{"productId": 5, "qty": 2}, {"variantId": 9, "qty": 1}],
+     *   "discountCode": "WELCOME10",   (optional)
+     *   "discountCents": 500           (optional, admins only: a manual discount instead of a code)
+     * }
+     *
+     * Subtotal, discount, tax and total are computed on the server. A manual
+     * discount from a caller not listed in orders.admin-emails gets 403.
      */
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        Order createdOrder = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+    public ResponseEntity<Order> createOrder(@AuthenticationPrincipal AuthenticatedUser user,
+                                             @RequestBody OrderRequest request) {
+        boolean admin = isAdmin(user);
+        if (request.discountCents() != null && !admin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(checkoutService.placeOrder(request, admin).order());
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /api/orders/reprice?taxRateBasis=850&status=placed - Re-tax orders at a new rate
+     *
+     * Keeps each order's subtotal and discount and recomputes tax and total.
+     * Defaults to orders that are still "placed". Callers not listed in
+     * orders.admin-emails get 403.
+     */
+    @PostMapping("/reprice")
+    public ResponseEntity<Map<String, Integer>> repriceOrders(@AuthenticationPrincipal AuthenticatedUser user,
+                                                              @RequestParam int taxRateBasis,
+                                                              @RequestParam(defaultValue = "placed") String status) {
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (taxRateBasis < 0 || taxRateBasis > 10_000) {
+            return ResponseEntity.badRequest().build();
+        }
+        int repriced = orderService.repriceOrders(status, taxRateBasis);
+        return ResponseEntity.ok(Map.of("repriced", repriced));
+    }
+
+    /**
+     * POST /api/orders/checkout - Place an order from the user's cart
+     *
+     * Expected JSON:
+     * {
+     *   "userId": 1,
+     *   "discountCode": "WELCOME10"   (optional)
+     * }
+     *
+     * Totals are computed on the server. Per-stage timings come back in the
+     * body and in a Server-Timing header (visible in browser dev tools).
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResult> checkout(@RequestBody CheckoutRequest request) {
+        try {
+            // pending in-memory cart edits must be in cart_items before checkout reads them
+            cartService.flush(request.userId());
+            CheckoutResult result = checkoutService.placeOrder(request.userId(), request.discountCode());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Server-Timing", serverTiming(result))
+                    .body(result);
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -71,6 +296,22 @@ public class OrderController {
         }
     }
 
+    /**
+     * PATCH /api/orders/status - Move many orders from one status to another
+     *
+     * Body: {"orderIds": [...], "fromStatus": "placed", "toStatus": "fulfilled"}, or leave out
+     * orderIds (optionally adding "placedBefore") to move every order in fromStatus.
+     * Responds with the ids that were updated and the requested ids that were skipped.
+     */
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusResult> updateOrderStatuses(@RequestBody BulkStatusRequest request) {
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * DELETE /api/orders/{id} - Delete an order
      */
@@ -83,4 +324,24 @@ public class OrderController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // 200 with validators, or 304 (no body written) when the client's copy is current
+    private static ResponseEntity<List<Order>> conditional(List<Order> orders) {
+        return Validators.ok(Validators.etag(orders), Validators.lastModified(orders)).body(orders);
+    }
+
+    private boolean isAdmin(AuthenticatedUser user) {
+        return user != null && adminEmails.contains(user.email());
+    }
+
+    private static String serverTiming(CheckoutResult result) {
+        StringBuilder header = new StringBuilder();
+        result.stageNanos().forEach((stage, nanos) -> {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(stage).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        });
+        return header.toString();
+    }
 }
@@ -1,13 +1,28 @@
 package com.inkhouse.ecommercebackend.controller;
 
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.ImportResult;
+import com.inkhouse.ecommercebackend.dto.ProductFilterResult;
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
 import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.sevice.CatalogSnapshot;
+import com.inkhouse.ecommercebackend.sevice.ProductFilterIndex;
+import com.inkhouse.ecommercebackend.sevice.ProductImportException;
+import com.inkhouse.ecommercebackend.sevice.ProductImportService;
 import com.inkhouse.ecommercebackend.sevice.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -15,29 +30,84 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     /**
      * GET /api/products - Get all products
+     *
+     * Served from the in-memory catalog snapshot as pre-serialized JSON.
+     * Tagged with the snapshot version, so a repeat poll with If-None-Match gets
+     * 304 until the catalog changes.
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts() {
+        CatalogSnapshot catalog = productService.getCatalog();
+        return Validators.ok(catalog.etag(), catalog.publishedAtMillis())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.allJson());
+    }
+
+    /**
+     * GET /api/products?limit={n}&after={cursor} - Get one page of products (ordered by id)
+     *
+     * Leave "after" off for the first page; each response carries the
+     * nextCursor to pass back for the following one (null on the last page).
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<Product>> getProductsPage(@RequestParam(required = false) String after,
+                                                               @RequestParam Integer limit) {
+        try {
+            return ResponseEntity.ok(productService.getProductsPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * GET /api/products/summary - Get all products with only the catalog grid fields
+     *
+     * id, title, imageUrl, basePriceCents, qtyAvailable, isActive; use
+     * GET /api/products/{id} for the full product. Served from the catalog snapshot.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<byte[]> getProductSummaries() {
+        CatalogSnapshot catalog = productService.getCatalog();
+        return Validators.ok(catalog.etag(), catalog.publishedAtMillis())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.allSummaryJson());
+    }
+
+    /**
+     * GET /api/products/summary?limit={n}&after={cursor} - Get one page of product summaries (ordered by id)
+     */
+    @GetMapping(value = "/summary", params = "limit")
+    public ResponseEntity<CursorPage<ProductSummary>> getProductSummariesPage(@RequestParam(required = false) String after,
+                                                                              @RequestParam Integer limit) {
+        try {
+            return ResponseEntity.ok(productService.getProductSummariesPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
      * GET /api/products/{id} - Get product by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Integer id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getProductById(@PathVariable Integer id) {
+        CatalogSnapshot.Entry entry = productService.getCatalog().get(id);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return Validators.ok(Validators.etag(entry.json()), Validators.lastModified(entry.view().updatedAt()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.json());
     }
 
     /**
@@ -59,14 +129,57 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    /**
+     * POST /api/products/import - Bulk-create products (and variants)
+     *
+     * Body is either a JSON array (Content-Type: application/json):
+     * [
+     *   {
+     *     "title": "Premade UTSA Skyline",
+     *     "basePriceCents": 1999,
+     *     "qtyAvailable": 50,
+     *     "variants": [
+     *       { "sizeLabel": "18x24", "finishLabel": "Matte", "priceCents": 2499, "qtyAvailable": 20 }
+     *     ]
+     *   }
+     * ]
+     *
+     * or CSV (Content-Type: text/csv), see ProductImportService for the columns.
+     * The body is streamed and written in batches, so files can be large.
+     * A rejected row gets 400 with the error and what was imported before it.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResult> importProductsJson(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(productImportService.importJson(body));
+        } catch (ProductImportException e) {
+            return ResponseEntity.badRequest().body(e.getResult());
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportResult> importProductsCsv(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(productImportService.importCsv(body));
+        } catch (ProductImportException e) {
+            return ResponseEntity.badRequest().body(e.getResult());
+        }
+    }
+
     /**
      * PUT /api/products/{id} - Update an existing product
+     *
+     * Send back the "version" you read to make the update conditional;
+     * a stale version gets 409 Conflict.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Integer id, @RequestBody Product product) {
         try {
             Product updatedProduct = productService.updateProduct(id, product);
             return ResponseEntity.ok(updatedProduct);
+        } catch (OptimisticLockingFailureException e) {
+            // someone else changed the product since the client loaded it
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -86,14 +199,55 @@ public class ProductController {
     }
 
     /**
-     * GET /api/products/search?name={query} - Search products by title
+     * GET /api/products/search?name={query}&limit={n} - Search products by title and description
      *
      * Kept the query parameter name "name" so your frontend
-     * doesn’t need to change, even though it searches on title.
+     * doesn’t need to change. Each word is matched as a prefix and
+     * results come back best match first.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam(name = "name") String query) {
-        List<Product> products = productService.searchProductsByTitle(query);
+    public ResponseEntity<List<ProductView>> searchProducts(@RequestParam(name = "name") String query,
+                                                            @RequestParam(required = false) Integer limit) {
+        List<ProductView> products = productService.searchProductsByTitle(query, limit);
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * GET /api/products/search/summary?name={query}&limit={n} - Same search, catalog grid fields only
+     */
+    @GetMapping("/search/summary")
+    public ResponseEntity<List<ProductSummary>> searchProductSummaries(@RequestParam(name = "name") String query,
+                                                                       @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProductSummaries(query, limit));
+    }
+
+    /**
+     * GET /api/products/filter?active=true&price=1500-2499&stock=in&size=18x24,12x18&finish=Matte&limit=&after=
+     *
+     * Every parameter is optional and may list several values (any of them matches);
+     * different parameters must all match. size/finish match a product with an active
+     * variant of that size / finish. Price bands come from catalog.filter.price-bands.
+     * Products come back ordered by id, with the total and per-value facet counts
+     * (see ProductFilterResult). Served from memory.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResult> filterProducts(@RequestParam(required = false) List<String> active,
+                                                              @RequestParam(required = false) List<String> price,
+                                                              @RequestParam(required = false) List<String> stock,
+                                                              @RequestParam(required = false) List<String> size,
+                                                              @RequestParam(required = false) List<String> finish,
+                                                              @RequestParam(required = false) String after,
+                                                              @RequestParam(required = false) Integer limit) {
+        Map<ProductFilterIndex.Facet, List<String>> selected = new EnumMap<>(ProductFilterIndex.Facet.class);
+        selected.put(ProductFilterIndex.Facet.ACTIVE, active);
+        selected.put(ProductFilterIndex.Facet.PRICE, price);
+        selected.put(ProductFilterIndex.Facet.STOCK, stock);
+        selected.put(ProductFilterIndex.Facet.SIZE, size);
+        selected.put(ProductFilterIndex.Facet.FINISH, finish);
+        try {
+            return ResponseEntity.ok(productService.filterProducts(selected, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bytes each caller may upload per fixed window (e.g. 250 MB an hour).
+ *
+ * An upload reserves its size up front (the declared Content-Length, or the most
+ * one upload may be when there is none) in the same atomic update that checks the
+ * limit, so concurrent uploads can't all slip under it. Once the upload ends the
+ * reservation is settled to the bytes actually stored, or refunded if it failed.
+ * A caller over the limit is refused until its window ends.
+ */
+final class UploadQuota {
+
+    // when the map grows past this, callers whose window has ended are dropped
+    private static final int SWEEP_SIZE = 10_000;
+
+    private record Usage(long windowStart, long bytes) {
+    }
+
+    /**
+     * Outcome of {@link #reserve}: bytes were reserved in the window starting at
+     * windowStart, or, if not granted, the caller should retry in retryAfterSeconds.
+     */
+    record Grant(long retryAfterSeconds, long windowStart, long bytes) {
+        boolean granted() {
+            return retryAfterSeconds == 0;
+        }
+    }
+
+    private final long limitBytes;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Object, Usage> usage = new ConcurrentHashMap<>();
+
+    UploadQuota(long limitBytes, long windowMillis, LongSupplier clock) {
+        this.limitBytes = limitBytes;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts bytes against the caller's window if they fit in what is left of it.
+     */
+    Grant reserve(Object caller, long bytes) {
+        long now = clock.getAsLong();
+        Grant[] grant = new Grant[1];
+        usage.compute(caller, (key, old) -> {
+            Usage current = old == null || now - old.windowStart() >= windowMillis ? new Usage(now, 0) : old;
+            if (current.bytes() + bytes > limitBytes) {
+                long windowEnds = current.windowStart() + windowMillis;
+                grant[0] = new Grant(Math.max(1, (windowEnds - now + 999) / 1000), current.windowStart(), 0);
+                return current;
+            }
+            grant[0] = new Grant(0, current.windowStart(), bytes);
+            return new Usage(current.windowStart(), current.bytes() + bytes);
+        });
+        sweep(now);
+        return grant[0];
+    }
+
+    /**
+     * Replaces a granted reservation with the bytes the upload really stored (0 to
+     * refund it). If the window has moved on since, they count in the current one.
+     */
+    void settle(Object caller, Grant grant, long actualBytes) {
+        if (!grant.granted()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        usage.compute(caller, (key, old) -> {
+            if (old != null && old.windowStart() == grant.windowStart()) {
+                return new Usage(old.windowStart(), Math.max(0, old.bytes() - grant.bytes() + actualBytes));
+            }
+            return old == null || now - old.windowStart() >= windowMillis
+                    ? new Usage(now, actualBytes)
+                    : new Usage(old.windowStart(), old.bytes() + actualBytes);
+        });
+    }
+
+    private void sweep(long now) {
+        if (usage.size() > SWEEP_SIZE) {
+            usage.values().removeIf(u -> now - u.windowStart() >= windowMillis);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import com.inkhouse.ecommercebackend.model.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * ETag / Last-Modified values for the read endpoints.
+ *
+ * Returning them on a ResponseEntity is enough: Spring compares them with
+ * If-None-Match / If-Modified-Since and answers 304 without writing the body.
+ * ETags are weak so Tomcat still gzips the response.
+ */
+final class Validators {
+
+    private Validators() {
+    }
+
+    /**
+     * 200 builder carrying the validators; Cache-Control: no-cache makes browsers
+     * revalidate on every use instead of guessing a freshness lifetime.
+     */
+    static ResponseEntity.BodyBuilder ok(String etag, long lastModifiedMillis) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag);
+        if (lastModifiedMillis >= 0) {
+            builder.lastModified(lastModifiedMillis);
+        }
+        return builder;
+    }
+
+    // Content hash of an already serialized body
+    static String etag(byte[] json) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    // Hash of the order fields that can change, so the order doesn't have to be serialized
+    static String etag(Order order) {
+        StringBuilder key = new StringBuilder(96);
+        appendKey(key, order);
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static String etag(List<Order> orders) {
+        StringBuilder key = new StringBuilder(orders.size() * 96 + 8).append(orders.size());
+        for (Order order : orders) {
+            key.append(';');
+            appendKey(key, order);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static long lastModified(List<Order> orders) {
+        long latest = -1;
+        for (Order order : orders) {
+            latest = Math.max(latest, lastModified(order.getUpdatedAt()));
+        }
+        return latest;
+    }
+
+    private static void appendKey(StringBuilder key, Order order) {
+        key.append(order.getId()).append('|').append(order.getUserId())
+                .append('|').append(order.getDiscountId())
+                .append('|').append(order.getSubtotalCents())
+                .append('|').append(order.getDiscountCents())
+                .append('|').append(order.getTaxRateBasis())
+                .append('|').append(order.getTaxCents())
+                .append('|').append(order.getTotalCents())
+                .append('|').append(order.getStatus())
+                .append('|').append(order.getPlacedAt())
+                .append('|').append(order.getUpdatedAt());
+    }
+}
@@ -0,0 +1,7 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * Principal set by the JWT filter; built from token claims alone, without a users lookup.
+ */
+public record AuthenticatedUser(Integer userId, String email) {
+}
@@ -0,0 +1,17 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves orders from one status to another in bulk.
+ *
+ * With orderIds set, only those orders are considered. Without it, every order
+ * currently in fromStatus is moved, optionally limited to orders placed before
+ * placedBefore.
+ */
+public record BulkStatusRequest(List<Integer> orderIds,
+                                String fromStatus,
+                                String toStatus,
+                                LocalDateTime placedBefore) {
+}
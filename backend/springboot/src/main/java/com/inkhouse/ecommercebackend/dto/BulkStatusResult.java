@@ -0,0 +1,10 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status change: ids that moved, and requested ids that did not
+ * (missing, or not in the expected from-status).
+ */
+public record BulkStatusResult(List<Integer> updated, List<Integer> skipped) {
+}
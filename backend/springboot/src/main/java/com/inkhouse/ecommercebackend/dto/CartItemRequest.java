@@ -0,0 +1,8 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * A cart line to add, change or remove. Exactly one of productId / variantId /
+ * designId identifies the item (same rule as trg_cart_items_validate_*).
+ */
+public record CartItemRequest(Integer productId, Integer variantId, Integer designId, Integer qty) {
+}
@@ -0,0 +1,11 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * One cart line; unitPriceCents is the price snapshot taken when the item was first added.
+ */
+public record CartLine(Integer productId, Integer variantId, Integer designId, int qty, int unitPriceCents) {
+
+    public CartLine withQty(int newQty) {
+        return new CartLine(productId, variantId, designId, newQty, unitPriceCents);
+    }
+}
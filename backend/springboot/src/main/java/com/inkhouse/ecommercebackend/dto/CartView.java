@@ -0,0 +1,6 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+
+public record CartView(Integer userId, List<CartLine> items, int subtotalCents) {
+}
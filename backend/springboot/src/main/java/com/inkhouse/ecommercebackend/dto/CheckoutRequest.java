@@ -0,0 +1,7 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * Body of POST /api/orders/checkout. discountCode is optional.
+ */
+public record CheckoutRequest(Integer userId, String discountCode) {
+}
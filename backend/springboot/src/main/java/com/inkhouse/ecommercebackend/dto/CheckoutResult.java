@@ -0,0 +1,14 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The placed order, its items, and how long each checkout stage took (in nanoseconds,
+ * in execution order).
+ */
+public record CheckoutResult(Order order, List<OrderItem> items, Map<String, Long> stageNanos) {
+}
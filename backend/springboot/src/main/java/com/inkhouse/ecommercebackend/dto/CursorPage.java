@@ -0,0 +1,12 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * nextCursor is opaque to clients: pass it back as ?after= to fetch the
+ * following page. It is null when there are no more rows.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
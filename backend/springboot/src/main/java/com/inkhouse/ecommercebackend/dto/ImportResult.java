@@ -0,0 +1,8 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * Outcome of a bulk import. When it stopped early, error says why and the counts
+ * cover the batches committed before that.
+ */
+public record ImportResult(int products, int variants, int batches, long elapsedMillis, String error) {
+}
@@ -0,0 +1,4 @@
+package com.inkhouse.ecommercebackend.dto;
+
+public record LoginRequest(String email, String password) {
+}
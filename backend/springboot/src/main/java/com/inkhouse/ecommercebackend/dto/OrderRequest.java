@@ -0,0 +1,11 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+
+/**
+ * Body of POST /api/orders: an order placed from explicit lines instead of the cart.
+ * Prices come from the catalog. discountCode is optional; discountCents is a manual
+ * discount and is only accepted from an admin.
+ */
+public record OrderRequest(Integer userId, List<CartItemRequest> items, String discountCode, Integer discountCents) {
+}
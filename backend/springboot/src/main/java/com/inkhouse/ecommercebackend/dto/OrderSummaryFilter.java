@@ -0,0 +1,13 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the admin order list; null fields are ignored.
+ * placedFrom is inclusive, placedTo exclusive.
+ */
+public record OrderSummaryFilter(String customerEmail,
+                                 String status,
+                                 LocalDateTime placedFrom,
+                                 LocalDateTime placedTo) {
+}
@@ -0,0 +1,18 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted product listing.
+ *
+ * total counts every matching product (not just this page). facets maps each
+ * facet (active, price, stock, size, finish) to value -> number of products that
+ * would match if that value were picked, given the other facets' selections.
+ * nextCursor works like in {@link CursorPage}.
+ */
+public record ProductFilterResult(List<ProductSummary> items,
+                                  String nextCursor,
+                                  int total,
+                                  Map<String, Map<String, Integer>> facets) {
+}
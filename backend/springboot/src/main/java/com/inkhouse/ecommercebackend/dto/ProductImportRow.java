@@ -0,0 +1,24 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.util.List;
+
+/**
+ * One product in a bulk import (POST /api/products/import), with optional variants.
+ */
+public record ProductImportRow(
+        String title,
+        String description,
+        String imageUrl,
+        Integer basePriceCents,
+        Integer qtyAvailable,
+        Boolean isActive,
+        List<Variant> variants) {
+
+    public record Variant(
+            String sizeLabel,
+            String finishLabel,
+            Integer priceCents,
+            Integer qtyAvailable,
+            Boolean isActive) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The columns the catalog grid shows: no description, audit timestamps or version.
+ * Used by the list endpoints; the detail endpoint still returns the full product.
+ */
+public record ProductSummary(
+        Integer id,
+        String title,
+        String imageUrl,
+        Integer basePriceCents,
+        Integer qtyAvailable,
+        @JsonProperty("isActive") Boolean isActive) {
+
+    public static ProductSummary from(ProductView view) {
+        return new ProductSummary(view.id(), view.title(), view.imageUrl(),
+                view.basePriceCents(), view.qtyAvailable(), view.isActive());
+    }
+}
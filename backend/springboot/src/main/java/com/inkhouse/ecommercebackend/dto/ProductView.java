@@ -0,0 +1,42 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.inkhouse.ecommercebackend.model.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a Product row, used by the in-memory catalog snapshot.
+ * Serializes to the same JSON shape as the Product entity.
+ */
+public record ProductView(
+        Integer id,
+        String title,
+        String description,
+        String imageUrl,
+        Integer basePriceCents,
+        Integer qtyAvailable,
+        @JsonProperty("isActive") Boolean isActive,
+        Long version,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static ProductView from(Product product) {
+        return new ProductView(
+                product.getId(),
+                product.getTitle(),
+                product.getDescription(),
+                product.getImageUrl(),
+                product.getBasePriceCents(),
+                product.getQtyAvailable(),
+                product.getIsActive(),
+                product.getVersion(),
+                product.getCreatedAt(),
+                product.getUpdatedAt());
+    }
+
+    public ProductView withQtyAvailable(Integer qty) {
+        return new ProductView(id, title, description, imageUrl, basePriceCents, qty,
+                isActive, version, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,28 @@
+package com.inkhouse.ecommercebackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order counts and money totals over a time range, one row per hour or day of
+ * placed_at that had orders, plus the sum of all rows.
+ *
+ * status is the status that was summed, or null for all statuses. Amounts are in
+ * cents; orders is the number of orders, not items.
+ */
+public record SalesReport(String granularity,
+                          String status,
+                          List<Row> rows,
+                          Row total) {
+
+    /**
+     * @param start first instant of the hour/day (null for the total row)
+     */
+    public record Row(LocalDateTime start,
+                      long orders,
+                      long subtotalCents,
+                      long discountCents,
+                      long taxCents,
+                      long totalCents) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.inkhouse.ecommercebackend.dto;
+
+/**
+ * Bearer token for the Authorization header, and when it stops being accepted.
+ */
+public record TokenResponse(String token, long expiresAtMillis) {
+}
@@ -0,0 +1,62 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "cart_items")
+public class CartItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "cart_item_id")
+    private Integer id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Integer cartId;
+
+    // exactly one of productId / variantId / designId is set (enforced by trg_cart_items_validate_*)
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "variant_id")
+    private Integer variantId;
+
+    @Column(name = "design_id")
+    private Integer designId;
+
+    @Column(name = "qty", nullable = false)
+    private Integer qty;
+
+    // price at the time the item was added, in cents
+    @Column(name = "unit_price_cents_snapshot", nullable = false)
+    private Integer unitPriceCentsSnapshot;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public CartItem() {
+    }
+}
@@ -0,0 +1,64 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "custom_designs")
+public class CustomDesign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "design_id")
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "image_url", nullable = false, length = 500)
+    private String imageUrl;
+
+    @Column(name = "size_label", nullable = false, length = 50)
+    private String sizeLabel;
+
+    @Column(name = "finish_label", nullable = false, length = 50)
+    private String finishLabel;
+
+    @Column(name = "price_cents", nullable = false)
+    private Integer priceCents;
+
+    @Column(name = "status", nullable = false, columnDefinition = "ENUM('pending','approved','rejected')")
+    private String status;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+
+        if (status == null) {
+            status = "pending";
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public CustomDesign() {
+    }
+}
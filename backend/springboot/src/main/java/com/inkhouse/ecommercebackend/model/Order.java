@@ -38,8 +38,8 @@ public class Order {
     @Column(name = "total_cents", nullable = false)
     private Integer totalCents;
 
-    // ENUM('placed','fulfilled','cancelled') in the DB
-    @Column(name = "status", nullable = false)
+    // spelled out as in the DB so ddl-auto=validate accepts the column
+    @Column(name = "status", nullable = false, columnDefinition = "ENUM('placed','fulfilled','cancelled')")
     private String status;
 
     @Column(name = "placed_at", nullable = false)
@@ -0,0 +1,60 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for something that happened to an order (created, status changed).
+ *
+ * Written by OrderOutboxService in the same transaction as the order change and
+ * deleted once every OrderEventHandler has accepted it. Rows that ran out of
+ * attempts stay behind with last_error for inspection.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_oe_available", columnList = "available_at, event_id")
+})
+public class OrderEvent {
+
+    public static final String CREATED = "order.created";
+    public static final String STATUS_CHANGED = "order.status_changed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType;
+
+    // JSON object, e.g. {"orderId":1,"userId":2,"status":"placed","totalCents":2165}
+    @Column(name = "payload", nullable = false, columnDefinition = "JSON")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    // set while a dispatcher is delivering the event; once it has passed, another one may take over
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public OrderEvent() {
+    }
+}
@@ -0,0 +1,48 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "order_items")
+public class OrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "order_item_id")
+    private Integer id;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "variant_id")
+    private Integer variantId;
+
+    // id of the custom design, kept for admin reference only (no FK)
+    @Column(name = "design_id_snapshot")
+    private Integer designIdSnapshot;
+
+    @Column(name = "title_snapshot", nullable = false, length = 200)
+    private String titleSnapshot;
+
+    @Column(name = "size_label", length = 50)
+    private String sizeLabel;
+
+    @Column(name = "finish_label", length = 50)
+    private String finishLabel;
+
+    @Column(name = "unit_price_cents", nullable = false)
+    private Integer unitPriceCents;
+
+    @Column(name = "qty", nullable = false)
+    private Integer qty;
+
+    public OrderItem() {
+    }
+}
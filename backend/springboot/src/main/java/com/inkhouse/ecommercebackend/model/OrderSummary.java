@@ -0,0 +1,63 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized row per order for the admin order list (replaces reading v_orders_admin).
+ *
+ * Kept in step with orders by OrderSummaryService in the same transaction as the
+ * order write, so admin list/sort/filter queries hit one narrow table and never
+ * join users or order_items.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "idx_os_placed", columnList = "placed_at, order_id"),
+        @Index(name = "idx_os_email_placed", columnList = "customer_email, placed_at, order_id"),
+        @Index(name = "idx_os_status_placed", columnList = "status, placed_at, order_id"),
+        @Index(name = "idx_os_total", columnList = "total_cents, order_id"),
+        @Index(name = "idx_os_email_total", columnList = "customer_email, total_cents, order_id"),
+        @Index(name = "idx_os_status_total", columnList = "status, total_cents, order_id"),
+        @Index(name = "idx_os_user", columnList = "user_id")
+})
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "customer_email", nullable = false)
+    private String customerEmail;
+
+    @Column(name = "status", nullable = false, columnDefinition = "ENUM('placed','fulfilled','cancelled')")
+    private String status;
+
+    @Column(name = "placed_at", nullable = false)
+    private LocalDateTime placedAt;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+
+    @Column(name = "subtotal_cents", nullable = false)
+    private Integer subtotalCents;
+
+    @Column(name = "discount_cents", nullable = false)
+    private Integer discountCents;
+
+    @Column(name = "tax_cents", nullable = false)
+    private Integer taxCents;
+
+    @Column(name = "total_cents", nullable = false)
+    private Integer totalCents;
+
+    public OrderSummary() {
+    }
+}
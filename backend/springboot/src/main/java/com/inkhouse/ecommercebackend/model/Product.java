@@ -12,8 +12,12 @@ import java.time.LocalDateTime;
 @Table(name = "products")
 public class Product {
 
+    // Ids are handed out in blocks from id_generators (pooled-lo, see IdGeneratorSeeder)
+    // so Hibernate can batch inserts; IDENTITY would force one round trip per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_ids")
+    @TableGenerator(name = "product_ids", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "products", allocationSize = 100)
     @Column(name = "product_id")
     private Integer id;
 
@@ -30,12 +34,20 @@ public class Product {
     @Column(name = "base_price_cents", nullable = false)
     private Integer basePriceCents;
 
-    @Column(name = "qty_available", nullable = false)
+    // written on insert only; afterwards stock moves through InventoryService so a
+    // product edit can't overwrite decrements made by concurrent checkouts
+    @Column(name = "qty_available", nullable = false, updatable = false)
     private Integer qtyAvailable;
 
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // optimistic lock: concurrent edits of the same row fail instead of overwriting each other.
+    // No default: an update body without "version" must read as "don't check", not as 0
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
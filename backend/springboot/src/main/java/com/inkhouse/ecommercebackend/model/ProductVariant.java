@@ -0,0 +1,80 @@
+package com.inkhouse.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "product_variants",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "size_label", "finish_label"}))
+public class ProductVariant {
+
+    // Ids are handed out in blocks from id_generators (pooled-lo, see IdGeneratorSeeder)
+    // so Hibernate can batch inserts; IDENTITY would force one round trip per row.
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "variant_ids")
+    @TableGenerator(name = "variant_ids", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "product_variants", allocationSize = 100)
+    @Column(name = "variant_id")
+    private Integer id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    // example: '12x18', '18x24'
+    @Column(name = "size_label", nullable = false, length = 50)
+    private String sizeLabel;
+
+    // example: 'Matte', 'Glossy'
+    @Column(name = "finish_label", nullable = false, length = 50)
+    private String finishLabel;
+
+    @Column(name = "price_cents", nullable = false)
+    private Integer priceCents;
+
+    // written on insert only; afterwards stock moves through InventoryService
+    @Column(name = "qty_available", nullable = false, updatable = false)
+    private Integer qtyAvailable;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    // optimistic lock: concurrent edits of the same row fail instead of overwriting each other
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+
+        if (isActive == null) {
+            isActive = true;
+        }
+        if (qtyAvailable == null) {
+            qtyAvailable = 0;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public ProductVariant() {
+    }
+}
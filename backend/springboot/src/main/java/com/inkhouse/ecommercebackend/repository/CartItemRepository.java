@@ -0,0 +1,20 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
+    List<CartItem> findByCartId(Integer cartId);
+
+    // Empties a cart in one statement instead of loading and deleting each row
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cartId = :cartId")
+    int deleteByCartId(@Param("cartId") Integer cartId);
+}
@@ -0,0 +1,12 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.Cart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, Integer> {
+    Optional<Cart> findByUserId(Integer userId);
+}
@@ -0,0 +1,12 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.CustomDesign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomDesignRepository extends JpaRepository<CustomDesign, Integer> {
+    List<CustomDesign> findByUserId(Integer userId);
+}
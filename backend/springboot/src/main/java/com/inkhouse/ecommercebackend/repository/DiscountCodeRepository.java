@@ -0,0 +1,28 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.DiscountCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DiscountCodeRepository extends JpaRepository<DiscountCode, Integer> {
+
+    // Same eligibility rules sp_place_order applies: active, inside its window, uses left
+    @Query("SELECT d FROM DiscountCode d WHERE d.code = :code AND d.isActive = true " +
+            "AND (d.startsAt IS NULL OR d.startsAt <= :now) " +
+            "AND (d.endsAt IS NULL OR d.endsAt >= :now) " +
+            "AND (d.maxUses IS NULL OR d.usedCount < d.maxUses)")
+    Optional<DiscountCode> findRedeemable(@Param("code") String code, @Param("now") LocalDateTime now);
+
+    // Guarded increment: returns 0 if the last use was taken by a concurrent checkout
+    @Modifying
+    @Query("UPDATE DiscountCode d SET d.usedCount = d.usedCount + 1 " +
+            "WHERE d.id = :id AND (d.maxUses IS NULL OR d.usedCount < d.maxUses)")
+    int incrementUsage(@Param("id") Integer id);
+}
@@ -0,0 +1,12 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+    List<OrderItem> findByOrderId(Integer orderId);
+}
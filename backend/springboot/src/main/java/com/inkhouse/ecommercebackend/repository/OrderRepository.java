@@ -1,13 +1,77 @@
 package com.inkhouse.ecommercebackend.repository;
 
 import com.inkhouse.ecommercebackend.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByUserId(Integer userId);
     List<Order> findByStatus(String status);
+
+    // Keyset pagination, newest first. (placed_at, order_id) is a total order, so pages
+    // stay stable while new orders arrive; idx_orders_placed_at serves the range scan.
+    List<Order> findAllByOrderByPlacedAtDescIdDesc(Limit limit);
+
+    @Query("SELECT o FROM Order o " +
+            "WHERE o.placedAt < :placedAt OR (o.placedAt = :placedAt AND o.id < :id) " +
+            "ORDER BY o.placedAt DESC, o.id DESC")
+    List<Order> findPageBefore(@Param("placedAt") LocalDateTime placedAt,
+                               @Param("id") Integer id,
+                               Limit limit);
+
+    // Same as above scoped to one customer; served by idx_orders_user_date (user_id, placed_at DESC)
+    List<Order> findByUserIdOrderByPlacedAtDescIdDesc(Integer userId, Limit limit);
+
+    @Query("SELECT o FROM Order o " +
+            "WHERE o.userId = :userId " +
+            "AND (o.placedAt < :placedAt OR (o.placedAt = :placedAt AND o.id < :id)) " +
+            "ORDER BY o.placedAt DESC, o.id DESC")
+    List<Order> findUserPageBefore(@Param("userId") Integer userId,
+                                   @Param("placedAt") LocalDateTime placedAt,
+                                   @Param("id") Integer id,
+                                   Limit limit);
+
+    // Bulk status changes: lock the orders that are still in the expected status, then move
+    // them with one UPDATE, so a chunk costs a fixed number of round trips however large it is.
+    @Query(value = "SELECT order_id FROM orders WHERE order_id IN (:ids) AND status = :status FOR UPDATE",
+            nativeQuery = true)
+    List<Integer> lockIdsInStatus(@Param("ids") Collection<Integer> ids, @Param("status") String status);
+
+    @Query(value = "SELECT order_id FROM orders " +
+            "WHERE status = :status AND placed_at < :placedBefore AND order_id > :afterId " +
+            "ORDER BY order_id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Integer> lockNextIdsInStatus(@Param("status") String status,
+                                      @Param("placedBefore") LocalDateTime placedBefore,
+                                      @Param("afterId") Integer afterId,
+                                      @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatusIn(@Param("ids") Collection<Integer> ids,
+                       @Param("status") String status,
+                       @Param("now") LocalDateTime now);
+
+    // Streams every order in id order for exports. Integer.MIN_VALUE tells Connector/J to
+    // stream rows instead of buffering the whole result set; must be consumed inside a
+    // read-only transaction and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAllByOrderById();
 }
@@ -0,0 +1,47 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Integer>,
+        JpaSpecificationExecutor<OrderSummary> {
+
+    // One statement per new order: the customer email is copied from users in the
+    // same INSERT instead of being looked up first.
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries (order_id, user_id, customer_email, status, placed_at, " +
+            "item_count, subtotal_cents, discount_cents, tax_cents, total_cents) " +
+            "SELECT :orderId, u.user_id, u.email, :status, :placedAt, :itemCount, " +
+            ":subtotalCents, :discountCents, :taxCents, :totalCents " +
+            "FROM users u WHERE u.user_id = :userId", nativeQuery = true)
+    int insertForOrder(@Param("orderId") Integer orderId,
+                       @Param("userId") Integer userId,
+                       @Param("status") String status,
+                       @Param("placedAt") LocalDateTime placedAt,
+                       @Param("itemCount") int itemCount,
+                       @Param("subtotalCents") int subtotalCents,
+                       @Param("discountCents") int discountCents,
+                       @Param("taxCents") int taxCents,
+                       @Param("totalCents") int totalCents);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status WHERE s.orderId = :orderId")
+    int updateStatus(@Param("orderId") Integer orderId, @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status WHERE s.orderId IN :orderIds")
+    int updateStatusIn(@Param("orderIds") Collection<Integer> orderIds, @Param("status") String status);
+
+    @Modifying
+    @Query("DELETE FROM OrderSummary s WHERE s.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Integer orderId);
+}
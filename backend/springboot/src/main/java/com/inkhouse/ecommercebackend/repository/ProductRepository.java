@@ -1,7 +1,11 @@
 package com.inkhouse.ecommercebackend.repository;
 
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
 import com.inkhouse.ecommercebackend.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +21,21 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 
     // Products with quantity above a threshold (qty_available)
     List<Product> findByQtyAvailableGreaterThan(Integer qty);
-}
\ No newline at end of file
+
+    // Keyset pagination over the primary key: first page, then everything after a given id
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    // Same keyset pages projected to the list columns; skips the description TEXT column
+    // and entity hydration entirely
+    @Query("SELECT new com.inkhouse.ecommercebackend.dto.ProductSummary(" +
+            "p.id, p.title, p.imageUrl, p.basePriceCents, p.qtyAvailable, p.isActive) " +
+            "FROM Product p ORDER BY p.id")
+    List<ProductSummary> findSummaries(Limit limit);
+
+    @Query("SELECT new com.inkhouse.ecommercebackend.dto.ProductSummary(" +
+            "p.id, p.title, p.imageUrl, p.basePriceCents, p.qtyAvailable, p.isActive) " +
+            "FROM Product p WHERE p.id > :id ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(@Param("id") Integer id, Limit limit);
+}
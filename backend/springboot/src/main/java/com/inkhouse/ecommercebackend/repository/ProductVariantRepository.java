@@ -0,0 +1,14 @@
+package com.inkhouse.ecommercebackend.repository;
+
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Integer> {
+
+    // All variants of a product (served by idx_variants_product)
+    List<ProductVariant> findByProductId(Integer productId);
+}
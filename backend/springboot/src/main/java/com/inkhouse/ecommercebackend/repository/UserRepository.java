@@ -4,6 +4,11 @@ import com.inkhouse.ecommercebackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    // users.email is UNIQUE, so this is a single index lookup
+    Optional<User> findByEmail(String email);
 }
@@ -0,0 +1,25 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CartItemRequest;
+import com.inkhouse.ecommercebackend.dto.CartLine;
+import com.inkhouse.ecommercebackend.dto.CartView;
+
+import java.util.List;
+
+public interface CartService {
+    CartView getCart(Integer userId);
+    CartView addItem(Integer userId, CartItemRequest item);
+    CartView setQuantity(Integer userId, CartItemRequest item);
+    CartView removeItem(Integer userId, CartItemRequest item);
+    CartView clearCart(Integer userId);
+    // What one unit of the line costs right now, by the same rules the cart prices lines with
+    int unitPriceCents(Integer userId, CartItemRequest item);
+
+    // Writes one user's pending edits to cart_items right away (e.g. before checkout reads them);
+    // throws if they couldn't be written
+    void flush(Integer userId);
+    // Writes every cart with pending edits; returns how many carts were written
+    int flush();
+    // Takes lines that were just ordered out of the cart, keeping any edited since checkout read them
+    void removeCheckedOut(Integer userId, List<CartLine> ordered);
+}
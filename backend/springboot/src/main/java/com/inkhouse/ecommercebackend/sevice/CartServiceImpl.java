@@ -0,0 +1,437 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CartItemRequest;
+import com.inkhouse.ecommercebackend.dto.CartLine;
+import com.inkhouse.ecommercebackend.dto.CartView;
+import com.inkhouse.ecommercebackend.model.Cart;
+import com.inkhouse.ecommercebackend.model.CartItem;
+import com.inkhouse.ecommercebackend.model.CustomDesign;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import com.inkhouse.ecommercebackend.repository.CartItemRepository;
+import com.inkhouse.ecommercebackend.repository.CartRepository;
+import com.inkhouse.ecommercebackend.repository.CustomDesignRepository;
+import com.inkhouse.ecommercebackend.repository.ProductVariantRepository;
+import com.inkhouse.ecommercebackend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Carts kept in memory, written behind to cart_items.
+ *
+ * Active carts live in a fixed number of shards keyed by user id, each with its own
+ * lock, so edits to different carts rarely contend. A cart is loaded from MySQL the
+ * first time it is touched and dropped again after cart.idle-ttl-ms without use.
+ * Edits only mark the cart dirty; a scheduled flush rewrites each dirty cart's rows
+ * (one DELETE + the current lines) for all dirty carts in one transaction, so any
+ * number of edits between flushes costs one rewrite.
+ *
+ * The in-memory copy is authoritative for this instance: cart_items must not be
+ * edited by another writer while the app is running.
+ * Checkout calls {@link #flush(Integer)} first, which throws if the cart can't be
+ * written (only the scheduled sweep swallows failures and retries), and
+ * {@link #removeCheckedOut} after it commits, which takes out just the lines that
+ * were ordered so edits made while checkout ran are kept.
+ */
+@Service
+public class CartServiceImpl implements CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartServiceImpl.class);
+
+    private static final int SHARDS = 64; // power of two, see shard()
+
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ?";
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, variant_id, design_id, qty, unit_price_cents_snapshot) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final class CartState {
+        Integer cartId; // null until the carts row exists
+        final Map<String, CartLine> lines = new LinkedHashMap<>();
+        long lastAccess;
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Integer, CartState> carts = new HashMap<>();
+        final Set<Integer> dirty = new LinkedHashSet<>();
+    }
+
+    private record PendingCart(Integer userId, Integer cartId, List<CartLine> lines) {
+    }
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final UserRepository userRepository;
+    private final ProductVariantRepository variantRepository;
+    private final CustomDesignRepository designRepository;
+    private final CatalogCache catalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleTtlMillis;
+
+    private final Shard[] shards = new Shard[SHARDS];
+    // one flush at a time, so an older copy of a cart can never overwrite a newer one
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public CartServiceImpl(CartRepository cartRepository,
+                           CartItemRepository cartItemRepository,
+                           UserRepository userRepository,
+                           ProductVariantRepository variantRepository,
+                           CustomDesignRepository designRepository,
+                           CatalogCache catalogCache,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${cart.idle-ttl-ms:1800000}") long idleTtlMillis) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.userRepository = userRepository;
+        this.variantRepository = variantRepository;
+        this.designRepository = designRepository;
+        this.catalogCache = catalogCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idleTtlMillis = idleTtlMillis;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @Override
+    public CartView getCart(Integer userId) {
+        return edit(userId, false, cart -> {
+        });
+    }
+
+    @Override
+    public CartView addItem(Integer userId, CartItemRequest item) {
+        String key = key(item);
+        int qty = item.qty() == null ? 1 : item.qty();
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        // price lookup happens outside the shard lock; it is only used if the line is new
+        CartLine added = new CartLine(item.productId(), item.variantId(), item.designId(), qty, priceOf(userId, item));
+        return edit(userId, true, cart -> cart.lines.merge(key, added, (old, ignored) -> old.withQty(old.qty() + qty)));
+    }
+
+    @Override
+    public CartView setQuantity(Integer userId, CartItemRequest item) {
+        String key = key(item);
+        if (item.qty() == null || item.qty() < 0) {
+            throw new IllegalArgumentException("Quantity must be 0 or more");
+        }
+        int qty = item.qty();
+        if (qty == 0) {
+            return edit(userId, true, cart -> cart.lines.remove(key));
+        }
+        CartLine line = new CartLine(item.productId(), item.variantId(), item.designId(), qty, priceOf(userId, item));
+        return edit(userId, true, cart -> cart.lines.merge(key, line, (old, ignored) -> old.withQty(qty)));
+    }
+
+    @Override
+    public CartView removeItem(Integer userId, CartItemRequest item) {
+        String key = key(item);
+        return edit(userId, true, cart -> cart.lines.remove(key));
+    }
+
+    @Override
+    public CartView clearCart(Integer userId) {
+        return edit(userId, true, cart -> cart.lines.clear());
+    }
+
+    @Override
+    public void flush(Integer userId) {
+        // taking flushLock first waits out a scheduled flush that may already have
+        // picked up this cart but not committed it yet
+        flushLock.lock();
+        try {
+            Shard shard = shard(userId);
+            PendingCart pending;
+            shard.lock.lock();
+            try {
+                if (!shard.dirty.remove(userId)) {
+                    return;
+                }
+                CartState cart = shard.carts.get(userId);
+                pending = new PendingCart(userId, cart.cartId, List.copyOf(cart.lines.values()));
+            } finally {
+                shard.lock.unlock();
+            }
+            try {
+                write(List.of(pending));
+            } catch (RuntimeException e) {
+                // the caller is about to read cart_items, so it has to know they're stale
+                markDirty(userId);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Collects every dirty cart and rewrites their rows in one transaction.
+     * If the write fails the carts stay dirty and are retried on the next run.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${cart.flush-interval-ms:500}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<PendingCart> pending = new ArrayList<>();
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    for (Integer userId : shard.dirty) {
+                        CartState cart = shard.carts.get(userId);
+                        pending.add(new PendingCart(userId, cart.cartId, List.copyOf(cart.lines.values())));
+                    }
+                    shard.dirty.clear();
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            try {
+                write(pending);
+            } catch (RuntimeException e) {
+                for (PendingCart cart : pending) {
+                    markDirty(cart.userId());
+                }
+                log.warn("Cart flush failed, will retry {} carts", pending.size(), e);
+                return 0;
+            }
+            return pending.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Rewrites the carts' rows in one transaction; called with flushLock held
+    private void write(List<PendingCart> pending) {
+        Map<Integer, Integer> createdCartIds = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> deletes = new ArrayList<>(pending.size());
+            List<Object[]> inserts = new ArrayList<>();
+            for (PendingCart cart : pending) {
+                Integer cartId = cart.cartId() != null ? cart.cartId() : createCart(cart.userId());
+                if (cart.cartId() == null) {
+                    createdCartIds.put(cart.userId(), cartId);
+                }
+                deletes.add(new Object[]{cartId});
+                for (CartLine line : cart.lines()) {
+                    inserts.add(new Object[]{cartId, line.productId(), line.variantId(), line.designId(),
+                            line.qty(), line.unitPriceCents()});
+                }
+            }
+            jdbcTemplate.batchUpdate(DELETE_ITEMS_SQL, deletes);
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, inserts);
+            }
+        });
+
+        createdCartIds.forEach((userId, cartId) -> {
+            Shard shard = shard(userId);
+            shard.lock.lock();
+            try {
+                CartState cart = shard.carts.get(userId);
+                if (cart != null) {
+                    cart.cartId = cartId;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Compare-and-remove: a line goes only if it is still exactly what was ordered.
+     * Lines added or changed while checkout ran stay, and the cart is marked dirty so
+     * the next flush writes them back to the cart_items checkout just emptied.
+     */
+    @Override
+    public void removeCheckedOut(Integer userId, List<CartLine> ordered) {
+        Map<String, CartLine> byKey = new HashMap<>();
+        for (CartLine line : ordered) {
+            byKey.merge(key(line.productId(), line.variantId(), line.designId()), line,
+                    (a, b) -> a.withQty(a.qty() + b.qty()));
+        }
+        Shard shard = shard(userId);
+        shard.lock.lock();
+        try {
+            CartState cart = shard.carts.get(userId);
+            if (cart != null) {
+                cart.lines.entrySet().removeIf(e -> e.getValue().equals(byKey.get(e.getKey())));
+                shard.dirty.add(userId);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops carts nobody has touched for cart.idle-ttl-ms (unless they still have
+     * unwritten edits); they are reloaded on next access.
+     */
+    @Scheduled(fixedDelayString = "${cart.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.carts.entrySet().removeIf(e -> e.getValue().lastAccess < cutoff && !shard.dirty.contains(e.getKey()));
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Applies a change to the user's cart under its shard lock and returns the result
+    private CartView edit(Integer userId, boolean modifies, Consumer<CartState> change) {
+        CartState loaded = null;
+        Shard shard = shard(userId);
+        while (true) {
+            shard.lock.lock();
+            try {
+                CartState cart = shard.carts.get(userId);
+                if (cart == null && loaded != null) {
+                    shard.carts.put(userId, loaded);
+                    cart = loaded;
+                }
+                if (cart != null) {
+                    change.accept(cart);
+                    cart.lastAccess = System.currentTimeMillis();
+                    if (modifies) {
+                        shard.dirty.add(userId);
+                    }
+                    return toView(userId, cart);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            // first access: read from MySQL without holding the shard lock, then retry
+            loaded = load(userId);
+        }
+    }
+
+    private CartState load(Integer userId) {
+        CartState cart = new CartState();
+        Cart row = cartRepository.findByUserId(userId).orElse(null);
+        if (row == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found with id: " + userId);
+            }
+            return cart;
+        }
+        cart.cartId = row.getId();
+        for (CartItem item : cartItemRepository.findByCartId(row.getId())) {
+            CartLine line = new CartLine(item.getProductId(), item.getVariantId(), item.getDesignId(),
+                    item.getQty(), item.getUnitPriceCentsSnapshot());
+            cart.lines.merge(key(line.productId(), line.variantId(), line.designId()), line,
+                    (a, b) -> a.withQty(a.qty() + b.qty()));
+        }
+        return cart;
+    }
+
+    private Integer createCart(Integer userId) {
+        return cartRepository.findByUserId(userId).orElseGet(() -> {
+            Cart cart = new Cart();
+            cart.setUserId(userId);
+            return cartRepository.save(cart);
+        }).getId();
+    }
+
+    private void markDirty(Integer userId) {
+        Shard shard = shard(userId);
+        shard.lock.lock();
+        try {
+            if (shard.carts.containsKey(userId)) {
+                shard.dirty.add(userId);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public int unitPriceCents(Integer userId, CartItemRequest item) {
+        key(item);
+        return priceOf(userId, item);
+    }
+
+    private int priceOf(Integer userId, CartItemRequest item) {
+        if (item.productId() != null) {
+            CatalogSnapshot.Entry entry = catalogCache.current().get(item.productId());
+            if (entry == null || Boolean.FALSE.equals(entry.view().isActive())) {
+                throw new IllegalArgumentException("Product not available: " + item.productId());
+            }
+            return entry.view().basePriceCents();
+        }
+        if (item.variantId() != null) {
+            return variantRepository.findById(item.variantId())
+                    .map(ProductVariant::getPriceCents)
+                    .orElseThrow(() -> new IllegalArgumentException("Variant not found: " + item.variantId()));
+        }
+        CustomDesign design = designRepository.findById(item.designId())
+                .orElseThrow(() -> new IllegalArgumentException("Design not found: " + item.designId()));
+        if (!design.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Design " + item.designId() + " belongs to another user");
+        }
+        return design.getPriceCents();
+    }
+
+    private Shard shard(Integer userId) {
+        int h = userId.hashCode();
+        return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+    }
+
+    private static String key(CartItemRequest item) {
+        int sources = (item.productId() != null ? 1 : 0) + (item.variantId() != null ? 1 : 0)
+                + (item.designId() != null ? 1 : 0);
+        if (sources != 1) {
+            throw new IllegalArgumentException("Exactly one of productId, variantId or designId is required");
+        }
+        return key(item.productId(), item.variantId(), item.designId());
+    }
+
+    private static String key(Integer productId, Integer variantId, Integer designId) {
+        if (productId != null) {
+            return "p" + productId;
+        }
+        return variantId != null ? "v" + variantId : "d" + designId;
+    }
+
+    private static CartView toView(Integer userId, CartState cart) {
+        List<CartLine> items = List.copyOf(cart.lines.values());
+        int subtotal = 0;
+        for (CartLine line : items) {
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(line.qty(), line.unitPriceCents()));
+        }
+        return new CartView(userId, items, subtotal);
+    }
+}
@@ -0,0 +1,187 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Holds the current {@link CatalogSnapshot}.
+ *
+ * Readers just read a volatile field, so they never block. Writers are serialized
+ * and publish a fresh copy-on-write snapshot after each product change. The first
+ * read loads the catalog from the database; after that reads don't touch MySQL.
+ *
+ * Registered {@link CatalogListener}s (search and filter indexes) are told about
+ * every change under the same lock, so they stay in step with the snapshot.
+ *
+ * Stock comes from InventoryService rather than the product rows: every change to a
+ * product's available quantity marks it, and the next read patches the marked
+ * products into a new snapshot (new version, new ETag) before returning it, so a
+ * burst of checkouts costs one patch. Sales on other instances show up when this
+ * instance next reserves or re-reads the product.
+ *
+ * The snapshot is per instance: only changes made through this app are seen
+ * until {@link #reload()} is called.
+ *
+ * Versions start from the startup time, so ETags built from them (see
+ * {@link CatalogSnapshot#etag()}) don't repeat across restarts.
+ */
+@Component
+public class CatalogCache implements StockListener {
+
+    private final ProductRepository productRepository;
+    private final ObjectWriter viewWriter;
+    private final ObjectWriter summaryWriter;
+    private final List<CatalogListener> listeners;
+
+    private final long initialVersion = System.currentTimeMillis();
+
+    private volatile CatalogSnapshot snapshot;
+
+    // product id -> InventoryService's live count, and the ids whose count moved since the last patch
+    private final Map<Integer, IntSupplier> stock = new ConcurrentHashMap<>();
+    private final Set<Integer> stockPending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CatalogCache(ProductRepository productRepository, ObjectMapper objectMapper,
+                        List<CatalogListener> listeners) {
+        this.productRepository = productRepository;
+        this.viewWriter = objectMapper.writerFor(ProductView.class);
+        this.summaryWriter = objectMapper.writerFor(ProductSummary.class);
+        this.listeners = listeners;
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load(initialVersion);
+                    snapshot = current;
+                    notifyReload(current);
+                }
+            }
+        }
+        if (!stockPending.isEmpty()) {
+            current = applyStock();
+        }
+        return current;
+    }
+
+    @Override
+    public void onStockLevel(InventoryService.Sku sku, IntSupplier available) {
+        if (sku.type() == InventoryService.SkuType.PRODUCT) {
+            stock.put(sku.id(), available);
+            stockPending.add(sku.id());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the database.
+     */
+    public synchronized CatalogSnapshot reload() {
+        long version = snapshot == null ? initialVersion : snapshot.version() + 1;
+        snapshot = load(version);
+        notifyReload(snapshot);
+        return snapshot;
+    }
+
+    public synchronized void put(Product product) {
+        if (snapshot == null) {
+            // nobody has read yet; the first read will load this product along with the rest
+            return;
+        }
+        CatalogSnapshot.Entry existing = snapshot.get(product.getId());
+        if (existing != null && isNewer(existing.view(), product)) {
+            // a concurrent update already published a later version of this row
+            return;
+        }
+        CatalogSnapshot.Entry entry = toEntry(withStock(ProductView.from(product)));
+        snapshot = snapshot.with(entry);
+        for (CatalogListener listener : listeners) {
+            listener.onPut(entry.view());
+        }
+    }
+
+    public synchronized void remove(Integer id) {
+        if (snapshot == null) {
+            return;
+        }
+        snapshot = snapshot.without(id);
+        for (CatalogListener listener : listeners) {
+            listener.onRemove(id);
+        }
+    }
+
+    // Patches the products whose stock moved; listeners aren't told, they track stock themselves
+    private synchronized CatalogSnapshot applyStock() {
+        if (snapshot == null) {
+            return current();
+        }
+        List<CatalogSnapshot.Entry> changed = new ArrayList<>();
+        for (Integer id : stockPending) {
+            // remove before reading, so a change that lands after the read marks it again
+            stockPending.remove(id);
+            CatalogSnapshot.Entry entry = snapshot.get(id);
+            if (entry == null) {
+                continue;
+            }
+            ProductView view = withStock(entry.view());
+            if (!view.equals(entry.view())) {
+                changed.add(toEntry(view));
+            }
+        }
+        if (!changed.isEmpty()) {
+            snapshot = snapshot.with(changed);
+        }
+        return snapshot;
+    }
+
+    private ProductView withStock(ProductView view) {
+        IntSupplier available = stock.get(view.id());
+        return available == null ? view : view.withQtyAvailable(Math.max(0, available.getAsInt()));
+    }
+
+    private void notifyReload(CatalogSnapshot loaded) {
+        for (CatalogListener listener : listeners) {
+            listener.onReload(loaded);
+        }
+    }
+
+    private static boolean isNewer(ProductView current, Product candidate) {
+        return current.updatedAt() != null && candidate.getUpdatedAt() != null
+                && current.updatedAt().isAfter(candidate.getUpdatedAt());
+    }
+
+    private CatalogSnapshot load(long version) {
+        List<Product> products = productRepository.findAll();
+        List<CatalogSnapshot.Entry> entries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            entries.add(toEntry(withStock(ProductView.from(product))));
+        }
+        return CatalogSnapshot.of(entries, version);
+    }
+
+    private CatalogSnapshot.Entry toEntry(ProductView view) {
+        try {
+            return new CatalogSnapshot.Entry(view, viewWriter.writeValueAsBytes(view),
+                    summaryWriter.writeValueAsBytes(ProductSummary.from(view)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + view.id(), e);
+        }
+    }
+}
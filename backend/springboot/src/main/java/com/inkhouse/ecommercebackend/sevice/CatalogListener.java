@@ -0,0 +1,21 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+
+/**
+ * Implemented by in-memory indexes that have to follow the catalog snapshot.
+ *
+ * CatalogCache calls these while holding its write lock, in the same order the
+ * snapshot changes, so implementations see one change at a time.
+ */
+public interface CatalogListener {
+
+    /**
+     * The snapshot was (re)built from the database; drop everything and index these products.
+     */
+    void onReload(CatalogSnapshot snapshot);
+
+    void onPut(ProductView product);
+
+    void onRemove(Integer productId);
+}
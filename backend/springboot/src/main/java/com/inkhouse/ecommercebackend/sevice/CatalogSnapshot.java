@@ -0,0 +1,311 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable point-in-time view of the catalog.
+ *
+ * Holds each product as a ProductView together with its serialized JSON (full and
+ * summary), plus the JSON for the whole list in both shapes, so a catalog read is a
+ * map lookup and a byte copy.
+ * Changes never mutate a snapshot; they produce a new one (see {@link #with}/{@link #without}).
+ * The list JSON of the new one is the old bytes with the changed products spliced
+ * in at their offsets, not a re-join of every product.
+ */
+public final class CatalogSnapshot {
+
+    public record Entry(ProductView view, byte[] json, byte[] summaryJson) {
+    }
+
+    static final CatalogSnapshot EMPTY = of(List.of(), 0);
+
+    private final NavigableMap<Integer, Entry> entries;
+    // product ids in list order, so a product's position in the joined JSON is a binary search
+    private final int[] ids;
+    private final JoinedJson allJson;
+    private final JoinedJson allSummaryJson;
+    private final long version;
+    private final long publishedAtMillis;
+    private volatile List<ProductView> views;
+
+    private CatalogSnapshot(TreeMap<Integer, Entry> entries, int[] ids, JoinedJson allJson,
+                            JoinedJson allSummaryJson, long version) {
+        this.entries = Collections.unmodifiableNavigableMap(entries);
+        this.ids = ids;
+        this.allJson = allJson;
+        this.allSummaryJson = allSummaryJson;
+        this.version = version;
+        this.publishedAtMillis = System.currentTimeMillis();
+    }
+
+    static CatalogSnapshot of(List<Entry> entries, long version) {
+        TreeMap<Integer, Entry> map = new TreeMap<>();
+        for (Entry entry : entries) {
+            map.put(entry.view().id(), entry);
+        }
+        int[] ids = new int[map.size()];
+        List<byte[]> json = new ArrayList<>(map.size());
+        List<byte[]> summaryJson = new ArrayList<>(map.size());
+        int i = 0;
+        for (Entry entry : map.values()) {
+            ids[i++] = entry.view().id();
+            json.add(entry.json());
+            summaryJson.add(entry.summaryJson());
+        }
+        return new CatalogSnapshot(map, ids, JoinedJson.of(json), JoinedJson.of(summaryJson), version);
+    }
+
+    /**
+     * Copy of this snapshot with one product added or replaced.
+     */
+    CatalogSnapshot with(Entry entry) {
+        int id = entry.view().id();
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return with(List.of(entry));
+        }
+        int at = -index - 1;
+        TreeMap<Integer, Entry> copy = new TreeMap<>(entries);
+        copy.put(id, entry);
+        int[] newIds = new int[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, at);
+        newIds[at] = id;
+        System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+        return new CatalogSnapshot(copy, newIds, allJson.insert(at, entry.json()),
+                allSummaryJson.insert(at, entry.summaryJson()), version + 1);
+    }
+
+    /**
+     * Copy of this snapshot with products that are already in it replaced, in one pass
+     * over the list JSON however many there are.
+     */
+    CatalogSnapshot with(List<Entry> replacements) {
+        List<Entry> sorted = new ArrayList<>(replacements);
+        sorted.sort((a, b) -> Integer.compare(a.view().id(), b.view().id()));
+        TreeMap<Integer, Entry> copy = new TreeMap<>(entries);
+        int[] indexes = new int[sorted.size()];
+        byte[][] json = new byte[sorted.size()][];
+        byte[][] summaryJson = new byte[sorted.size()][];
+        for (int k = 0; k < sorted.size(); k++) {
+            Entry entry = sorted.get(k);
+            indexes[k] = Arrays.binarySearch(ids, entry.view().id());
+            if (indexes[k] < 0) {
+                throw new IllegalArgumentException("Not in the snapshot: product " + entry.view().id());
+            }
+            copy.put(entry.view().id(), entry);
+            json[k] = entry.json();
+            summaryJson[k] = entry.summaryJson();
+        }
+        return new CatalogSnapshot(copy, ids, allJson.replace(indexes, json),
+                allSummaryJson.replace(indexes, summaryJson), version + 1);
+    }
+
+    /**
+     * Copy of this snapshot with one product removed.
+     */
+    CatalogSnapshot without(Integer id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return new CatalogSnapshot(new TreeMap<>(entries), ids, allJson, allSummaryJson, version + 1);
+        }
+        TreeMap<Integer, Entry> copy = new TreeMap<>(entries);
+        copy.remove(id);
+        int[] newIds = new int[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        return new CatalogSnapshot(copy, newIds, allJson.remove(index), allSummaryJson.remove(index), version + 1);
+    }
+
+    public Entry get(Integer id) {
+        return entries.get(id);
+    }
+
+    /**
+     * All products ordered by id.
+     */
+    public List<ProductView> views() {
+        // built on first use; a benign race just builds the same list twice
+        List<ProductView> list = views;
+        if (list == null) {
+            List<ProductView> built = new ArrayList<>(entries.size());
+            for (Entry entry : entries.values()) {
+                built.add(entry.view());
+            }
+            list = Collections.unmodifiableList(built);
+            views = list;
+        }
+        return list;
+    }
+
+    /**
+     * JSON array of every product, in id order. Callers must not modify it.
+     */
+    public byte[] allJson() {
+        return allJson.bytes;
+    }
+
+    /**
+     * JSON array of every product as a {@link ProductSummary}, in id order. Callers must not modify it.
+     */
+    public byte[] allSummaryJson() {
+        return allSummaryJson.bytes;
+    }
+
+    /**
+     * Bumped on every change; handy as a cheap cache key for the whole catalog.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Validator for the list responses built from this snapshot. Weak because Tomcat
+     * only gzips responses without a strong ETag; the bytes are identical either way.
+     */
+    public String etag() {
+        return "W/\"catalog-" + version + "\"";
+    }
+
+    /**
+     * When this snapshot replaced the previous one (used as Last-Modified).
+     */
+    public long publishedAtMillis() {
+        return publishedAtMillis;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A JSON array stitched together from per-element JSON, remembering where each
+     * element starts so a change copies the bytes around it instead of re-joining
+     * every element.
+     */
+    static final class JoinedJson {
+
+        final byte[] bytes;
+        // element i runs from starts[i] up to the ',' or ']' that follows it
+        private final int[] starts;
+
+        private JoinedJson(byte[] bytes, int[] starts) {
+            this.bytes = bytes;
+            this.starts = starts;
+        }
+
+        static JoinedJson of(List<byte[]> parts) {
+            int length = 2 + Math.max(0, parts.size() - 1);
+            for (byte[] part : parts) {
+                length += part.length;
+            }
+            byte[] out = new byte[length];
+            int[] starts = new int[parts.size()];
+            out[0] = '[';
+            int pos = 1;
+            for (int i = 0; i < parts.size(); i++) {
+                if (i > 0) {
+                    out[pos++] = ',';
+                }
+                starts[i] = pos;
+                byte[] part = parts.get(i);
+                System.arraycopy(part, 0, out, pos, part.length);
+                pos += part.length;
+            }
+            out[pos] = ']';
+            return new JoinedJson(out, starts);
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        private int end(int i) {
+            return i + 1 < starts.length ? starts[i + 1] - 1 : bytes.length - 1;
+        }
+
+        // indexes must be ascending
+        JoinedJson replace(int[] indexes, byte[][] parts) {
+            int length = bytes.length;
+            for (int k = 0; k < indexes.length; k++) {
+                length += parts[k].length - (end(indexes[k]) - starts[indexes[k]]);
+            }
+            byte[] out = new byte[length];
+            int[] newStarts = new int[starts.length];
+            int src = 0;
+            int dst = 0;
+            int shift = 0;
+            int k = 0;
+            for (int i = 0; i < starts.length; i++) {
+                newStarts[i] = starts[i] + shift;
+                if (k < indexes.length && indexes[k] == i) {
+                    System.arraycopy(bytes, src, out, dst, starts[i] - src);
+                    dst += starts[i] - src;
+                    System.arraycopy(parts[k], 0, out, dst, parts[k].length);
+                    dst += parts[k].length;
+                    src = end(i);
+                    shift += parts[k].length - (end(i) - starts[i]);
+                    k++;
+                }
+            }
+            System.arraycopy(bytes, src, out, dst, bytes.length - src);
+            return new JoinedJson(out, newStarts);
+        }
+
+        // part becomes element index; index == size() appends
+        JoinedJson insert(int index, byte[] part) {
+            if (starts.length == 0) {
+                return of(List.of(part));
+            }
+            byte[] out = new byte[bytes.length + part.length + 1];
+            int[] newStarts = new int[starts.length + 1];
+            System.arraycopy(starts, 0, newStarts, 0, index);
+            if (index < starts.length) {
+                // part followed by a comma, in front of the element it displaces
+                int at = starts[index];
+                System.arraycopy(bytes, 0, out, 0, at);
+                System.arraycopy(part, 0, out, at, part.length);
+                out[at + part.length] = ',';
+                System.arraycopy(bytes, at, out, at + part.length + 1, bytes.length - at);
+                newStarts[index] = at;
+                for (int i = index; i < starts.length; i++) {
+                    newStarts[i + 1] = starts[i] + part.length + 1;
+                }
+            } else {
+                // a comma and part, in front of the closing bracket
+                int at = bytes.length - 1;
+                System.arraycopy(bytes, 0, out, 0, at);
+                out[at] = ',';
+                System.arraycopy(part, 0, out, at + 1, part.length);
+                out[out.length - 1] = ']';
+                newStarts[index] = at + 1;
+            }
+            return new JoinedJson(out, newStarts);
+        }
+
+        JoinedJson remove(int index) {
+            if (starts.length == 1) {
+                return of(List.of());
+            }
+            // the element and the comma after it, or for the last one the comma before it
+            int from = index + 1 < starts.length ? starts[index] : starts[index] - 1;
+            int to = index + 1 < starts.length ? starts[index + 1] : bytes.length - 1;
+            byte[] out = new byte[bytes.length - (to - from)];
+            System.arraycopy(bytes, 0, out, 0, from);
+            System.arraycopy(bytes, to, out, from, bytes.length - to);
+            int[] newStarts = new int[starts.length - 1];
+            System.arraycopy(starts, 0, newStarts, 0, index);
+            for (int i = index + 1; i < starts.length; i++) {
+                newStarts[i - 1] = starts[i] - (to - from);
+            }
+            return new JoinedJson(out, newStarts);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CheckoutResult;
+import com.inkhouse.ecommercebackend.dto.OrderRequest;
+
+public interface CheckoutService {
+
+    /**
+     * Turns the user's cart into an order (the Java replacement for sp_place_order).
+     *
+     * @throws InsufficientStockException if a line can't be covered
+     * @throws IllegalStateException      if the cart is missing/empty or the discount code is used up
+     */
+    CheckoutResult placeOrder(Integer userId, String discountCode);
+
+    /**
+     * Places an order from the request's lines, priced from the catalog, with the same
+     * discount, tax and stock rules as a cart checkout. The cart is left alone.
+     *
+     * @param manualDiscountAllowed whether request.discountCents may be honoured (admins only)
+     * @throws InsufficientStockException if a line can't be covered
+     * @throws IllegalArgumentException   if a line is malformed or not for sale, or the discount isn't allowed
+     * @throws IllegalStateException      if the discount code is used up
+     */
+    CheckoutResult placeOrder(OrderRequest request, boolean manualDiscountAllowed);
+}
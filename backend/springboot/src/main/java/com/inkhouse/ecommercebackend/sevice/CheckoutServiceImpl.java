@@ -0,0 +1,373 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CartItemRequest;
+import com.inkhouse.ecommercebackend.dto.CartLine;
+import com.inkhouse.ecommercebackend.dto.CheckoutResult;
+import com.inkhouse.ecommercebackend.dto.OrderRequest;
+import com.inkhouse.ecommercebackend.model.Cart;
+import com.inkhouse.ecommercebackend.model.CartItem;
+import com.inkhouse.ecommercebackend.model.CustomDesign;
+import com.inkhouse.ecommercebackend.model.DiscountCode;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderItem;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import com.inkhouse.ecommercebackend.repository.CartItemRepository;
+import com.inkhouse.ecommercebackend.repository.CartRepository;
+import com.inkhouse.ecommercebackend.repository.CustomDesignRepository;
+import com.inkhouse.ecommercebackend.repository.DiscountCodeRepository;
+import com.inkhouse.ecommercebackend.repository.OrderRepository;
+import com.inkhouse.ecommercebackend.repository.ProductRepository;
+import com.inkhouse.ecommercebackend.repository.ProductVariantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout done in the application instead of sp_place_order.
+ *
+ * Load the cart and the catalog rows it points at (one query per table) and
+ * reserve the stock through InventoryService; then, in one transaction, price it,
+ * insert the order, batch-insert its items, queue an order.created outbox event
+ * and empty the cart. The reservation commits in a short transaction of its own,
+ * so the rows every buyer of a hot SKU needs aren't locked while the order is
+ * written. Once the order transaction ends the reservation becomes a sale, or is
+ * released if it rolled back.
+ *
+ * POST /api/orders goes through the same steps with lines from the request
+ * instead of a cart: prices come from the catalog and a discount code is redeemed
+ * the same way, so a client can't name its own subtotal or discount. Only an admin
+ * may give a manual discount amount.
+ *
+ * Each stage is timed into the "checkout.stage" timer (tag: stage) and returned
+ * with the result.
+ */
+@Service
+public class CheckoutServiceImpl implements CheckoutService {
+
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, variant_id, design_id_snapshot, " +
+                    "title_snapshot, size_label, finish_label, unit_price_cents, qty) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartService cartService;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+    private final CustomDesignRepository designRepository;
+    private final DiscountCodeRepository discountCodeRepository;
+    private final OrderRepository orderRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderOutboxService orderOutboxService;
+    private final SalesRollupService salesRollupService;
+    private final InventoryService inventoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int taxRateBasis;
+
+    @Autowired
+    public CheckoutServiceImpl(CartRepository cartRepository,
+                               CartItemRepository cartItemRepository,
+                               CartService cartService,
+                               ProductRepository productRepository,
+                               ProductVariantRepository variantRepository,
+                               CustomDesignRepository designRepository,
+                               DiscountCodeRepository discountCodeRepository,
+                               OrderRepository orderRepository,
+                               OrderSummaryService orderSummaryService,
+                               OrderOutboxService orderOutboxService,
+                               SalesRollupService salesRollupService,
+                               InventoryService inventoryService,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${pricing.tax-rate-basis:825}") int taxRateBasis) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.cartService = cartService;
+        this.productRepository = productRepository;
+        this.variantRepository = variantRepository;
+        this.designRepository = designRepository;
+        this.discountCodeRepository = discountCodeRepository;
+        this.orderRepository = orderRepository;
+        this.orderSummaryService = orderSummaryService;
+        this.orderOutboxService = orderOutboxService;
+        this.salesRollupService = salesRollupService;
+        this.inventoryService = inventoryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.taxRateBasis = taxRateBasis;
+    }
+
+    @Override
+    public CheckoutResult placeOrder(Integer userId, String discountCode) {
+        Stages stages = new Stages();
+
+        // 1) cart and everything it references
+        Cart cart = cartRepository.findByUserId(userId)
+                .orElseThrow(() -> new IllegalStateException("Cart not found for user"));
+        List<CartItem> cartItems = cartItemRepository.findByCartId(cart.getId());
+        if (cartItems.isEmpty()) {
+            throw new IllegalStateException("Cart is empty");
+        }
+        List<OrderItem> items = snapshotItems(cartItems);
+        stages.lap("load_cart");
+
+        Order order = reserved(cartItems, stages, () -> {
+            Order placed = insertOrder(userId, cartItems, items, discountCode, null, stages);
+
+            // 5) empty the cart, and take the ordered lines out of the in-memory copy once that's committed
+            cartItemRepository.deleteByCartId(cart.getId());
+            List<CartLine> ordered = new ArrayList<>(cartItems.size());
+            for (CartItem ci : cartItems) {
+                ordered.add(new CartLine(ci.getProductId(), ci.getVariantId(), ci.getDesignId(),
+                        ci.getQty(), ci.getUnitPriceCentsSnapshot()));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cartService.removeCheckedOut(userId, ordered);
+                }
+            });
+            stages.lap("clear_cart");
+            return placed;
+        });
+        return new CheckoutResult(order, items, stages.nanos);
+    }
+
+    @Override
+    public CheckoutResult placeOrder(OrderRequest request, boolean manualDiscountAllowed) {
+        Stages stages = new Stages();
+        if (request.userId() == null || request.items() == null || request.items().isEmpty()) {
+            throw new IllegalArgumentException("userId and at least one item are required");
+        }
+        if (request.discountCents() != null) {
+            if (!manualDiscountAllowed) {
+                throw new IllegalArgumentException("Only an admin can set discountCents");
+            }
+            if (request.discountCents() < 0 || (request.discountCode() != null && !request.discountCode().isBlank())) {
+                throw new IllegalArgumentException("discountCents must be 0 or more and can't be combined with a code");
+            }
+        }
+
+        // 1) lines priced like cart lines, and everything they reference
+        List<CartItem> lines = new ArrayList<>(request.items().size());
+        for (CartItemRequest line : request.items()) {
+            if (line.qty() == null || line.qty() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            CartItem item = new CartItem();
+            item.setProductId(line.productId());
+            item.setVariantId(line.variantId());
+            item.setDesignId(line.designId());
+            item.setQty(line.qty());
+            item.setUnitPriceCentsSnapshot(cartService.unitPriceCents(request.userId(), line));
+            lines.add(item);
+        }
+        List<OrderItem> items;
+        try {
+            items = snapshotItems(lines);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        stages.lap("load_items");
+
+        Order order = reserved(lines, stages, () ->
+                insertOrder(request.userId(), lines, items, request.discountCode(), request.discountCents(), stages));
+        return new CheckoutResult(order, items, stages.nanos);
+    }
+
+    // Reserves the lines' stock, runs placeOrder in a transaction, then settles the reservation by how that ended
+    private Order reserved(List<CartItem> cartItems, Stages stages, Supplier<Order> placeOrder) {
+        long reservation = inventoryService.reserve(stockLines(cartItems));
+        stages.lap("reserve_stock");
+        Order order;
+        try {
+            order = transactionTemplate.execute(status -> placeOrder.get());
+        } catch (RuntimeException | Error e) {
+            inventoryService.release(reservation);
+            throw e;
+        }
+        inventoryService.commit(reservation);
+        return order;
+    }
+
+    // Steps 2-4: price the lines, insert the order header and its lines
+    private Order insertOrder(Integer userId, List<CartItem> cartItems, List<OrderItem> items,
+                              String discountCode, Integer manualDiscountCents, Stages stages) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // 2) subtotal, discount, tax
+        int[] qty = new int[cartItems.size()];
+        int[] unitPrice = new int[cartItems.size()];
+        for (int i = 0; i < qty.length; i++) {
+            qty[i] = cartItems.get(i).getQty();
+            unitPrice[i] = cartItems.get(i).getUnitPriceCentsSnapshot();
+        }
+        int subtotal = PricingEngine.subtotalCents(qty, unitPrice, 0, qty.length);
+        if (subtotal <= 0) {
+            throw new IllegalStateException("Cart is empty");
+        }
+        DiscountCode discount = null;
+        int discountCents = 0;
+        if (manualDiscountCents != null) {
+            discountCents = PricingEngine.discountCents(PricingEngine.FIXED, manualDiscountCents, subtotal);
+        } else if (discountCode != null && !discountCode.isBlank()) {
+            discount = discountCodeRepository.findRedeemable(discountCode.trim(), now).orElse(null);
+            if (discount != null) {
+                discountCents = PricingEngine.discountCents(PricingEngine.discountType(discount.getType()), discount.getValueBasis(), subtotal);
+            }
+        }
+        int taxCents = PricingEngine.taxCents(subtotal - discountCents, taxRateBasis);
+        stages.lap("price");
+
+        // 3) order header
+        if (discount != null && discountCodeRepository.incrementUsage(discount.getId()) == 0) {
+            throw new IllegalStateException("Discount code is no longer available");
+        }
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setDiscountId(discount == null ? null : discount.getId());
+        order.setSubtotalCents(subtotal);
+        order.setDiscountCents(discountCents);
+        order.setTaxRateBasis(taxRateBasis);
+        order.setTaxCents(taxCents);
+        order.setTotalCents(PricingEngine.totalCents(subtotal, discountCents, taxCents));
+        order.setStatus("placed");
+        order.setPlacedAt(now);
+        order = orderRepository.save(order);
+        stages.lap("insert_order");
+
+        // 4) order lines, one JDBC batch
+        Integer orderId = order.getId();
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            item.setOrderId(orderId);
+            rows.add(new Object[]{orderId, item.getProductId(), item.getVariantId(), item.getDesignIdSnapshot(),
+                    item.getTitleSnapshot(), item.getSizeLabel(), item.getFinishLabel(),
+                    item.getUnitPriceCents(), item.getQty()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL, rows);
+        int units = 0;
+        for (int q : qty) {
+            units += q;
+        }
+        orderSummaryService.recordOrder(order, units);
+        orderOutboxService.orderCreated(order);
+        salesRollupService.orderPlaced(order);
+        stages.lap("insert_items");
+        return order;
+    }
+
+    /**
+     * Builds order lines with the same title/size/finish snapshot rules as sp_place_order,
+     * loading products, variants and designs with one query per table.
+     */
+    private List<OrderItem> snapshotItems(List<CartItem> cartItems) {
+        Set<Integer> productIds = new HashSet<>();
+        Set<Integer> variantIds = new HashSet<>();
+        Set<Integer> designIds = new HashSet<>();
+        for (CartItem ci : cartItems) {
+            if (ci.getProductId() != null) productIds.add(ci.getProductId());
+            if (ci.getVariantId() != null) variantIds.add(ci.getVariantId());
+            if (ci.getDesignId() != null) designIds.add(ci.getDesignId());
+        }
+
+        Map<Integer, ProductVariant> variants = byId(variantRepository.findAllById(variantIds), ProductVariant::getId);
+        for (ProductVariant variant : variants.values()) {
+            productIds.add(variant.getProductId());
+        }
+        Map<Integer, Product> products = byId(productRepository.findAllById(productIds), Product::getId);
+        Map<Integer, CustomDesign> designs = byId(designRepository.findAllById(designIds), CustomDesign::getId);
+
+        List<OrderItem> items = new ArrayList<>(cartItems.size());
+        for (CartItem ci : cartItems) {
+            OrderItem item = new OrderItem();
+            item.setProductId(ci.getProductId());
+            item.setVariantId(ci.getVariantId());
+            item.setDesignIdSnapshot(ci.getDesignId());
+            item.setUnitPriceCents(ci.getUnitPriceCentsSnapshot());
+            item.setQty(ci.getQty());
+
+            if (ci.getProductId() != null) {
+                Product product = requireActive(products.get(ci.getProductId()), ci.getProductId());
+                item.setTitleSnapshot(product.getTitle());
+            } else if (ci.getVariantId() != null) {
+                ProductVariant variant = variants.get(ci.getVariantId());
+                if (variant == null || !Boolean.TRUE.equals(variant.getIsActive())) {
+                    throw new IllegalStateException("Variant is no longer available: " + ci.getVariantId());
+                }
+                Product parent = requireActive(products.get(variant.getProductId()), variant.getProductId());
+                item.setTitleSnapshot(parent.getTitle());
+                item.setSizeLabel(variant.getSizeLabel());
+                item.setFinishLabel(variant.getFinishLabel());
+            } else {
+                CustomDesign design = designs.get(ci.getDesignId());
+                item.setTitleSnapshot("Custom Poster");
+                if (design != null) {
+                    item.setSizeLabel(design.getSizeLabel());
+                    item.setFinishLabel(design.getFinishLabel());
+                }
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    // custom designs are printed to order, so only products and variants hold stock
+    private static List<InventoryService.Line> stockLines(List<CartItem> cartItems) {
+        List<InventoryService.Line> lines = new ArrayList<>(cartItems.size());
+        for (CartItem ci : cartItems) {
+            if (ci.getVariantId() != null) {
+                lines.add(new InventoryService.Line(InventoryService.Sku.variant(ci.getVariantId()), ci.getQty()));
+            } else if (ci.getProductId() != null) {
+                lines.add(new InventoryService.Line(InventoryService.Sku.product(ci.getProductId()), ci.getQty()));
+            }
+        }
+        return lines;
+    }
+
+    private static Product requireActive(Product product, Integer id) {
+        if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+            throw new IllegalStateException("Product is no longer available: " + id);
+        }
+        return product;
+    }
+
+    private static <T> Map<Integer, T> byId(List<T> rows, Function<T, Integer> id) {
+        return rows.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private final class Stages {
+        private final Map<String, Long> nanos = new LinkedHashMap<>();
+        private long mark = System.nanoTime();
+
+        void lap(String stage) {
+            long now = System.nanoTime();
+            long elapsed = now - mark;
+            mark = now;
+            nanos.put(stage, elapsed);
+            meterRegistry.timer("checkout.stage", "stage", stage).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields may be double-quoted,
+ * "" inside quotes is a literal quote, and quoted fields may span lines.
+ * Reads one record at a time so large files never sit in memory.
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private int lineNumber = 1;
+
+    CsvReader(Reader reader) {
+        // mark/reset is needed to look one character past a closing quote
+        this.reader = reader.markSupported() ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @return the next record, or null at end of input
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAny = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            sawAny = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (peek != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineNumber++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                lineNumber++;
+                fields.add(stripCr(field));
+                return fields;
+            } else {
+                field.append(ch);
+            }
+        }
+        if (!sawAny) {
+            return null;
+        }
+        fields.add(stripCr(field));
+        return fields;
+    }
+
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    private static String stripCr(StringBuilder field) {
+        int len = field.length();
+        if (len > 0 && field.charAt(len - 1) == '\r') {
+            field.setLength(len - 1);
+        }
+        return field.toString();
+    }
+}
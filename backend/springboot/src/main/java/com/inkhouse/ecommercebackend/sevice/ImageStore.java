@@ -0,0 +1,42 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Product and custom poster images on local disk.
+ *
+ * Images are stored under their content hash, so a key always names the same
+ * bytes (responses can be cached forever) and uploading the same file twice
+ * stores it once.
+ */
+public interface ImageStore {
+
+    /**
+     * A file ready to be sent.
+     *
+     * @param etag    strong ETag, quoted
+     * @param pending the requested width hasn't been generated yet and this is the
+     *                original instead; don't cache it for long
+     */
+    record Image(Path file, String contentType, long length, long lastModifiedMillis,
+                 String etag, boolean pending) {
+    }
+
+    /**
+     * Streams a PNG or JPEG to disk and queues its resized variants.
+     *
+     * @return the image key, e.g. "3f1c...9a.png"
+     * @throws IllegalArgumentException if the body isn't a PNG/JPEG or is over the size limits
+     */
+    String store(InputStream in) throws IOException;
+
+    /**
+     * The original (width null) or the variant of the given width.
+     *
+     * @throws IllegalArgumentException if width isn't one of the configured variant widths
+     */
+    Optional<Image> find(String key, Integer width) throws IOException;
+}
@@ -0,0 +1,338 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Images as files under images.dir, named by the SHA-256 of their bytes:
+ *
+ *   {dir}/3f/3f1c...9a.png          the upload
+ *   {dir}/3f/3f1c...9a-w800.png     variant scaled to 800 px wide
+ *
+ * Uploads are copied to disk through a small buffer while being hashed, so their
+ * size never shows up on the heap. Only the header is read to check the format and
+ * dimensions before the file is moved into place.
+ *
+ * Variants are made on the image-resize threads. The original is decoded with
+ * source subsampling so that the decoded image is at most about twice the largest
+ * missing width, however big the poster is. A variant at least as wide as the
+ * original is a hard link to it. A variant asked for before it exists (still
+ * queued, or lost in a restart) is queued again and the original is returned
+ * marked pending.
+ */
+@Service
+public class ImageStoreImpl implements ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStoreImpl.class);
+
+    private static final Pattern KEY = Pattern.compile("([0-9a-f]{64})\\.(png|jpg)");
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final Path root;
+    private final Path incoming;
+    private final long maxUploadBytes;
+    private final long maxPixels;
+    private final int[] widths;
+    private final ExecutorService resizer;
+
+    // hashes with a resize task queued or running, and ones whose resize failed (not retried until restart)
+    private final Set<String> resizing = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ImageStoreImpl(@Value("${images.dir:./data/images}") String dir,
+                          @Value("${images.max-upload-bytes:26214400}") long maxUploadBytes,
+                          @Value("${images.max-pixels:100000000}") long maxPixels,
+                          @Value("${images.variant-widths:320,800,1600}") int[] widths,
+                          @Value("${images.resize-threads:2}") int resizeThreads) throws IOException {
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+        this.incoming = Files.createDirectories(root.resolve("incoming"));
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxPixels = maxPixels;
+        this.widths = widths.clone();
+        Arrays.sort(this.widths);
+        this.resizer = Executors.newFixedThreadPool(resizeThreads,
+                Thread.ofPlatform().name("image-resize-", 0).daemon().factory());
+
+        // partial uploads and variants from a previous run
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(incoming)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    @Override
+    public String store(InputStream in) throws IOException {
+        Path upload = Files.createTempFile(incoming, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            String extension;
+            try (OutputStream out = Files.newOutputStream(upload)) {
+                extension = copy(in, out, sha256);
+            }
+            checkDimensions(upload);
+
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path file = original(hash, extension);
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                Files.move(upload, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            queueVariants(hash, extension);
+            return hash + "." + extension;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    @Override
+    public Optional<Image> find(String key, Integer width) throws IOException {
+        if (width != null && Arrays.binarySearch(widths, width) < 0) {
+            throw new IllegalArgumentException("Width must be one of " + Arrays.toString(widths));
+        }
+        Matcher matcher = KEY.matcher(key);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String hash = matcher.group(1);
+        String extension = matcher.group(2);
+        Path original = original(hash, extension);
+        if (!Files.exists(original)) {
+            return Optional.empty();
+        }
+        if (width != null) {
+            Path variant = variant(hash, extension, width);
+            if (Files.exists(variant)) {
+                return Optional.of(image(variant, extension, hash + "-w" + width, false));
+            }
+            queueVariants(hash, extension);
+            return Optional.of(image(original, extension, hash, true));
+        }
+        return Optional.of(image(original, extension, hash, false));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // unfinished variants are queued again the next time they're asked for
+        resizer.shutdownNow();
+    }
+
+    private static Image image(Path file, String extension, String tag, boolean pending) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new Image(file, contentType(extension), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), "\"" + tag + "\"", pending);
+    }
+
+    // Copies the body to out, checking the format from the first bytes; returns the file extension
+    private String copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER];
+        int read = in.readNBytes(buffer, 0, PNG_MAGIC.length);
+        String extension = extension(buffer, read);
+        long total = 0;
+        while (read > 0) {
+            total += read;
+            if (total > maxUploadBytes) {
+                throw new IllegalArgumentException("Image is larger than " + maxUploadBytes + " bytes");
+            }
+            digest.update(buffer, 0, read);
+            out.write(buffer, 0, read);
+            read = in.read(buffer);
+        }
+        return extension;
+    }
+
+    private static String extension(byte[] head, int length) {
+        if (length == PNG_MAGIC.length && Arrays.equals(head, 0, length, PNG_MAGIC, 0, length)) {
+            return "png";
+        }
+        if (length >= 3 && head[0] == (byte) 0xff && head[1] == (byte) 0xd8 && head[2] == (byte) 0xff) {
+            return "jpg";
+        }
+        throw new IllegalArgumentException("Only PNG and JPEG images are supported");
+    }
+
+    private static String contentType(String extension) {
+        return extension.equals("png") ? "image/png" : "image/jpeg";
+    }
+
+    // Reads just the header: rejects files ImageIO can't parse and ones too big to decode safely
+    private void checkDimensions(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("Image has more than " + maxPixels + " pixels");
+                }
+            } catch (IOException e) {
+                // truncated or corrupt header
+                throw new IllegalArgumentException("Unreadable image", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream input) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IllegalArgumentException("Unreadable image");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    private void queueVariants(String hash, String extension) {
+        if (failed.contains(hash) || !resizing.add(hash)) {
+            return;
+        }
+        try {
+            resizer.execute(() -> {
+                try {
+                    writeVariants(hash, extension);
+                } catch (Exception | OutOfMemoryError e) {
+                    failed.add(hash);
+                    log.warn("Could not generate variants of image {}.{}", hash, extension, e);
+                } finally {
+                    resizing.remove(hash);
+                }
+            });
+        } catch (RuntimeException e) {
+            // shutting down
+            resizing.remove(hash);
+        }
+    }
+
+    private void writeVariants(String hash, String extension) throws IOException {
+        Path original = original(hash, extension);
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                int originalWidth = reader.getWidth(0);
+                List<Integer> toScale = new ArrayList<>();
+                for (int i = widths.length - 1; i >= 0; i--) {
+                    Path variant = variant(hash, extension, widths[i]);
+                    if (Files.exists(variant)) {
+                        continue;
+                    }
+                    if (widths[i] >= originalWidth) {
+                        link(original, variant);
+                    } else {
+                        toScale.add(widths[i]);
+                    }
+                }
+                if (toScale.isEmpty()) {
+                    return;
+                }
+
+                // decode at most ~2x the widest variant instead of the full poster
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, originalWidth / toScale.get(0));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                for (int width : toScale) {
+                    write(scale(decoded, width, extension.equals("png")), extension, variant(hash, extension, width));
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, boolean alpha) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    // Written next to the uploads and moved into place, so readers never see half a file
+    private void write(BufferedImage image, String extension, Path target) throws IOException {
+        Path tmp = Files.createTempFile(incoming, "variant-", ".tmp");
+        try {
+            if (!ImageIO.write(image, extension.equals("png") ? "png" : "jpeg", tmp.toFile())) {
+                throw new IOException("No ImageIO writer for " + extension);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void link(Path original, Path variant) throws IOException {
+        try {
+            Files.createLink(variant, original);
+        } catch (FileAlreadyExistsException e) {
+            // made by a concurrent task
+        } catch (UnsupportedOperationException | IOException e) {
+            Path tmp = Files.createTempFile(incoming, "variant-", ".tmp");
+            try {
+                Files.copy(original, tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, variant, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private Path original(String hash, String extension) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "." + extension);
+    }
+
+    private Path variant(String hash, String extension, int width) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "-w" + width + "." + extension);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+/**
+ * Thrown when a reservation asks for more units than a product/variant has available.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final InventoryService.Sku sku;
+
+    public InsufficientStockException(InventoryService.Sku sku, int requested) {
+        super("Insufficient stock for " + sku + " (requested " + requested + ")");
+        this.sku = sku;
+    }
+
+    public InventoryService.Sku getSku() {
+        return sku;
+    }
+}
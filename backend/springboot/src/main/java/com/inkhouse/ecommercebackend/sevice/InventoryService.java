@@ -0,0 +1,62 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import java.util.List;
+
+public interface InventoryService {
+
+    enum SkuType { PRODUCT, VARIANT }
+
+    /**
+     * A stocked item: either a base product (products.qty_available) or a variant
+     * (product_variants.qty_available).
+     */
+    record Sku(SkuType type, Integer id) {
+        public static Sku product(Integer productId) {
+            return new Sku(SkuType.PRODUCT, productId);
+        }
+
+        public static Sku variant(Integer variantId) {
+            return new Sku(SkuType.VARIANT, variantId);
+        }
+    }
+
+    record Line(Sku sku, int qty) {
+    }
+
+    /**
+     * Holds stock for every line, all or nothing, by taking the units out of
+     * qty_available in a transaction of its own. Call it before the order's
+     * transaction starts and settle with commit or release once that has ended.
+     *
+     * @return reservation id to pass to commit/release
+     * @throws InsufficientStockException if any line can't be covered
+     * @throws IllegalStateException      if called inside a transaction
+     */
+    long reserve(List<Line> lines);
+
+    /**
+     * Turns a reservation into a sale.
+     */
+    void commit(long reservationId);
+
+    /**
+     * Puts reserved stock back; it reaches qty_available on the next flush.
+     */
+    void release(long reservationId);
+
+    int getAvailable(Sku sku);
+
+    /**
+     * Sets the on-hand quantity (e.g. from an admin edit) without losing
+     * reservations or decrements that are still in flight. Inside a transaction
+     * the new level is only served once it commits.
+     */
+    void setStock(Sku sku, int qtyAvailable);
+
+    /**
+     * Adds released stock back to qty_available.
+     *
+     * @return number of rows updated
+     */
+    int flush();
+}
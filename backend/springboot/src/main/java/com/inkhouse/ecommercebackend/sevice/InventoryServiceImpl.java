@@ -0,0 +1,433 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock ledger with the database as the arbiter.
+ *
+ * A reservation takes its units out of qty_available with a conditional decrement
+ * (... AND qty_available >= n), so stock can't go negative however many instances
+ * sell the same SKU. The decrement runs in a short transaction of its own, before
+ * the order's, so a hot SKU's row is locked for a few statements rather than for a
+ * whole checkout. The caller then settles: commit turns the units into a sale,
+ * release hands them back. Released units pile up per SKU and a scheduled flush
+ * adds them back with one batched relative UPDATE per table; a late increment
+ * can't oversell. A reservation left unsettled for inventory.reservation-ttl-ms is
+ * released by a sweep. Units held when the instance dies are lost to the count
+ * until someone restocks the SKU.
+ *
+ * Each SKU also has an in-memory view: the last qty_available this instance saw
+ * plus what it still owes the database, and the units it holds. A SKU the view
+ * says is sold out is refused without a query, which keeps a drop's stampede off
+ * the hot row; sold-out views are re-read on a schedule so stock added through
+ * another instance shows up.
+ * Registered {@link StockListener}s hear about SKUs that may have sold out or
+ * come back into stock.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private static final String RESERVE_PRODUCT_SQL =
+            "UPDATE products SET qty_available = qty_available - ? WHERE product_id = ? AND qty_available >= ?";
+    private static final String RESERVE_VARIANT_SQL =
+            "UPDATE product_variants SET qty_available = qty_available - ? WHERE variant_id = ? AND qty_available >= ?";
+    private static final String RETURN_PRODUCT_SQL =
+            "UPDATE products SET qty_available = qty_available + ? WHERE product_id = ?";
+    private static final String RETURN_VARIANT_SQL =
+            "UPDATE product_variants SET qty_available = qty_available + ? WHERE variant_id = ?";
+    private static final String SET_PRODUCT_SQL =
+            "UPDATE products SET qty_available = ? WHERE product_id = ?";
+    private static final String SET_VARIANT_SQL =
+            "UPDATE product_variants SET qty_available = ? WHERE variant_id = ?";
+    private static final String QTY_PRODUCT_SQL = "SELECT qty_available FROM products WHERE product_id = ?";
+    private static final String QTY_VARIANT_SQL = "SELECT qty_available FROM product_variants WHERE variant_id = ?";
+
+    // same order in every reservation transaction, so two checkouts can't deadlock on each other's rows
+    private static final Comparator<Line> LOCK_ORDER =
+            Comparator.comparing((Line line) -> line.sku().type()).thenComparing(line -> line.sku().id());
+
+    private record Reservation(List<Line> lines, long expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<StockListener> stockListeners;
+    private final long reservationTtlMillis;
+
+    private final Map<Sku, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong nextReservationId = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public InventoryServiceImpl(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                List<StockListener> stockListeners,
+                                @Value("${inventory.reservation-ttl-ms:900000}") long reservationTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stockListeners = stockListeners;
+        this.reservationTtlMillis = reservationTtlMillis;
+    }
+
+    @Override
+    public long reserve(List<Line> lines) {
+        for (Line line : lines) {
+            if (line.qty() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            if (counter(line.sku()).available() <= 0) {
+                throw new InsufficientStockException(line.sku(), line.qty());
+            }
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // joining would keep the rows locked until the caller commits
+            throw new IllegalStateException("Reserve stock before the order's transaction starts");
+        }
+        List<Line> ordered = new ArrayList<>(lines);
+        ordered.sort(LOCK_ORDER);
+
+        int[] taken = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Line line : ordered) {
+                    String sql = line.sku().type() == SkuType.PRODUCT ? RESERVE_PRODUCT_SQL : RESERVE_VARIANT_SQL;
+                    if (jdbcTemplate.update(sql, line.qty(), line.sku().id(), line.qty()) == 0) {
+                        // rolls back the lines already taken
+                        throw new InsufficientStockException(line.sku(), line.qty());
+                    }
+                    // the row is locked until this commits, so this is exactly what's left, and
+                    // reservations of the same SKU update the view in the order they took stock
+                    counter(line.sku()).seen(load(line.sku()));
+                    taken[0]++;
+                }
+            });
+        } catch (RuntimeException e) {
+            // the views of lines taken before the failure counted units that went back with the rollback
+            try {
+                for (int i = 0; i < taken[0]; i++) {
+                    reload(ordered.get(i).sku());
+                }
+                if (e instanceof InsufficientStockException insufficient) {
+                    stockChanged(insufficient.getSku(), reload(insufficient.getSku()));
+                }
+            } catch (RuntimeException reloadFailed) {
+                e.addSuppressed(reloadFailed);
+            }
+            throw e;
+        }
+
+        for (Line line : ordered) {
+            StockCounter counter = counter(line.sku());
+            counter.reserved(line.qty());
+            stockLevel(line.sku(), counter);
+            if (counter.available() <= 0) {
+                stockChanged(line.sku(), counter);
+            }
+        }
+        long id = nextReservationId.incrementAndGet();
+        reservations.put(id, new Reservation(List.copyOf(lines), System.currentTimeMillis() + reservationTtlMillis));
+        return id;
+    }
+
+    @Override
+    public void commit(long reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new IllegalStateException("Reservation not found or expired: " + reservationId);
+        }
+        for (Line line : reservation.lines()) {
+            counter(line.sku()).commit(line.qty());
+        }
+    }
+
+    @Override
+    public void release(long reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            return;
+        }
+        for (Line line : reservation.lines()) {
+            StockCounter counter = counter(line.sku());
+            counter.release(line.qty());
+            stockLevel(line.sku(), counter);
+            // nothing was available before these units came back
+            if (counter.available() <= line.qty()) {
+                stockChanged(line.sku(), counter);
+            }
+        }
+    }
+
+    @Override
+    public int getAvailable(Sku sku) {
+        return Math.max(0, counter(sku).available());
+    }
+
+    /**
+     * Writes qty_available in the caller's transaction, less the units held by
+     * checkouts on this instance. Units held by a checkout running on another
+     * instance at that moment aren't known here and end up counted as sold.
+     * This instance's view and the listeners follow once the write commits.
+     */
+    @Override
+    public void setStock(Sku sku, int qtyAvailable) {
+        StockCounter counter = counter(sku);
+        // a flush in progress has drained units it hasn't written yet; wait for it so
+        // they aren't added on top of the new level
+        flushLock.lock();
+        try {
+            jdbcTemplate.update(sku.type() == SkuType.PRODUCT ? SET_PRODUCT_SQL : SET_VARIANT_SQL,
+                    counter.column(qtyAvailable), sku.id());
+        } finally {
+            flushLock.unlock();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onHandSet(sku, counter, qtyAvailable);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onHandSet(sku, counter, qtyAvailable);
+            }
+        });
+    }
+
+    private void onHandSet(Sku sku, StockCounter counter, int onHand) {
+        counter.setOnHand(onHand);
+        stockLevel(sku, counter);
+        stockChanged(sku, counter);
+    }
+
+    /**
+     * Drains every counter's returned units and adds them back in one transaction.
+     * If the write fails they are kept and retried on the next run.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:250}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Sku> skus = new ArrayList<>();
+            List<Integer> returned = new ArrayList<>();
+            List<Object[]> productArgs = new ArrayList<>();
+            List<Object[]> variantArgs = new ArrayList<>();
+
+            for (Map.Entry<Sku, StockCounter> e : counters.entrySet()) {
+                int units = e.getValue().drainReturned();
+                if (units == 0) {
+                    continue;
+                }
+                skus.add(e.getKey());
+                returned.add(units);
+                Object[] args = {units, e.getKey().id()};
+                if (e.getKey().type() == SkuType.PRODUCT) {
+                    productArgs.add(args);
+                } else {
+                    variantArgs.add(args);
+                }
+            }
+            if (skus.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!productArgs.isEmpty()) {
+                        jdbcTemplate.batchUpdate(RETURN_PRODUCT_SQL, productArgs);
+                    }
+                    if (!variantArgs.isEmpty()) {
+                        jdbcTemplate.batchUpdate(RETURN_VARIANT_SQL, variantArgs);
+                    }
+                });
+            } catch (RuntimeException e) {
+                for (int i = 0; i < skus.size(); i++) {
+                    counters.get(skus.get(i)).addReturned(returned.get(i));
+                }
+                log.warn("Inventory flush failed, will retry {} pending SKUs", skus.size(), e);
+                return 0;
+            }
+            return skus.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads SKUs this instance thinks are sold out, so a restock made through
+     * another instance (or straight in the database) lets sales through again.
+     */
+    @Scheduled(fixedDelayString = "${inventory.sold-out-refresh-ms:1000}")
+    public void refreshSoldOut() {
+        for (Map.Entry<Sku, StockCounter> e : counters.entrySet()) {
+            StockCounter counter = e.getValue();
+            if (counter.available() > 0) {
+                continue;
+            }
+            try {
+                counter.seen(load(e.getKey()));
+            } catch (RuntimeException ex) {
+                log.debug("Could not re-read stock for {}", e.getKey(), ex);
+                continue;
+            }
+            stockLevel(e.getKey(), counter);
+            if (counter.available() > 0) {
+                stockChanged(e.getKey(), counter);
+            }
+        }
+    }
+
+    /**
+     * Returns stock held by reservations that were never committed or released.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation-sweep-ms:30000}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Reservation> e : reservations.entrySet()) {
+            if (e.getValue().expiresAt() < now) {
+                release(e.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void stockChanged(Sku sku, StockCounter counter) {
+        for (StockListener listener : stockListeners) {
+            listener.onStockChanged(sku, counter::available);
+        }
+    }
+
+    private void stockLevel(Sku sku, StockCounter counter) {
+        for (StockListener listener : stockListeners) {
+            listener.onStockLevel(sku, counter::available);
+        }
+    }
+
+    private StockCounter reload(Sku sku) {
+        StockCounter counter = counter(sku);
+        counter.seen(load(sku));
+        stockLevel(sku, counter);
+        return counter;
+    }
+
+    private StockCounter counter(Sku sku) {
+        StockCounter counter = counters.get(sku);
+        if (counter != null) {
+            return counter;
+        }
+        // load outside computeIfAbsent so a slow query doesn't block other SKUs in the same bin
+        StockCounter loaded = new StockCounter(load(sku));
+        StockCounter existing = counters.putIfAbsent(sku, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        stockLevel(sku, loaded);
+        return loaded;
+    }
+
+    // Outside a transaction this is a read-write statement, so it goes to the primary
+    private int load(Sku sku) {
+        List<Integer> qty = jdbcTemplate.queryForList(
+                sku.type() == SkuType.PRODUCT ? QTY_PRODUCT_SQL : QTY_VARIANT_SQL, Integer.class, sku.id());
+        if (qty.isEmpty()) {
+            throw new RuntimeException((sku.type() == SkuType.PRODUCT ? "Product" : "Variant")
+                    + " not found with id: " + sku.id());
+        }
+        return qty.get(0);
+    }
+
+    /**
+     * This instance's view of one SKU. available is the last qty_available seen plus
+     * units returned but not flushed yet; it only decides what can be refused without
+     * asking the database. held and returned are packed into one long so column()
+     * sees a unit in exactly one of them while a release moves it across.
+     */
+    static final class StockCounter {
+
+        private final AtomicInteger available;
+        private final AtomicLong heldAndReturned = new AtomicLong();
+
+        StockCounter(int qtyAvailable) {
+            this.available = new AtomicInteger(qtyAvailable);
+        }
+
+        void reserved(int qty) {
+            heldAndReturned.getAndUpdate(s -> pack(held(s) + qty, returned(s)));
+        }
+
+        void commit(int qty) {
+            heldAndReturned.getAndUpdate(s -> pack(held(s) - qty, returned(s)));
+        }
+
+        void release(int qty) {
+            heldAndReturned.getAndUpdate(s -> pack(held(s) - qty, returned(s) + qty));
+            available.addAndGet(qty);
+        }
+
+        void seen(int qtyAvailable) {
+            available.set(qtyAvailable + returned(heldAndReturned.get()));
+        }
+
+        /**
+         * @return the qty_available to store for onHand units, leaving out what is
+         *         held and what the next flush will add back
+         */
+        int column(int onHand) {
+            long s = heldAndReturned.get();
+            return onHand - held(s) - returned(s);
+        }
+
+        void setOnHand(int onHand) {
+            available.set(onHand - held(heldAndReturned.get()));
+        }
+
+        int available() {
+            return available.get();
+        }
+
+        int drainReturned() {
+            return returned(heldAndReturned.getAndUpdate(s -> pack(held(s), 0)));
+        }
+
+        void addReturned(int units) {
+            heldAndReturned.getAndUpdate(s -> pack(held(s), returned(s) + units));
+        }
+
+        private static long pack(int held, int returned) {
+            return ((long) held << 32) | (returned & 0xFFFFFFFFL);
+        }
+
+        private static int held(long s) {
+            return (int) (s >> 32);
+        }
+
+        private static int returned(long s) {
+            return (int) s;
+        }
+    }
+}
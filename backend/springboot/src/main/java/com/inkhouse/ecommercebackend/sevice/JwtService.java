@@ -0,0 +1,109 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.inkhouse.ecommercebackend.dto.TokenResponse;
+import com.inkhouse.ecommercebackend.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies the HS256 bearer tokens used by the API.
+ *
+ * Tokens carry the user id and email, so an authenticated request never needs to
+ * load the user. Verified tokens are remembered until they expire, so repeat
+ * requests with the same token skip the signature check and claims parsing and
+ * cost one map lookup. The cache is bounded by jwt.cache-size: when it is full,
+ * expired entries are swept, and if that frees nothing it is cleared and refills.
+ */
+@Component
+public class JwtService {
+
+    private record Verified(AuthenticatedUser user, long expiresAtMillis) {
+    }
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expirationMillis;
+    private final int cacheSize;
+    private final ConcurrentHashMap<String, Verified> verified = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expirationMillis,
+                      @Value("${jwt.cache-size:10000}") int cacheSize) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.expirationMillis = expirationMillis;
+        this.cacheSize = cacheSize;
+    }
+
+    public TokenResponse issueToken(User user) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + expirationMillis;
+        String token = Jwts.builder()
+                .subject(user.getEmail())
+                .claim("uid", user.getUser_id())
+                .issuedAt(new Date(now))
+                .expiration(new Date(expiresAt))
+                .signWith(key)
+                .compact();
+        return new TokenResponse(token, expiresAt);
+    }
+
+    /**
+     * The user a token was issued to, or empty if the token is malformed,
+     * wrongly signed or expired.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        long now = System.currentTimeMillis();
+        Verified cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                return Optional.of(cached.user());
+            }
+            verified.remove(token, cached);
+            return Optional.empty();
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Integer userId = claims.get("uid", Integer.class);
+        if (userId == null || claims.getSubject() == null || claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+
+        AuthenticatedUser user = new AuthenticatedUser(userId, claims.getSubject());
+        remember(token, new Verified(user, claims.getExpiration().getTime()), now);
+        return Optional.of(user);
+    }
+
+    int cachedTokens() {
+        return verified.size();
+    }
+
+    private void remember(String token, Verified entry, long now) {
+        if (verified.size() >= cacheSize) {
+            verified.values().removeIf(v -> v.expiresAtMillis() <= now);
+            if (verified.size() >= cacheSize) {
+                verified.clear();
+            }
+        }
+        verified.put(token, entry);
+    }
+}
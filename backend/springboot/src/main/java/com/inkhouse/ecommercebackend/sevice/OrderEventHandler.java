@@ -0,0 +1,17 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.model.OrderEvent;
+
+/**
+ * Receives order events from the outbox dispatcher (confirmation mail, fulfillment,
+ * analytics, ...). Every handler bean sees every event and ignores the types it
+ * doesn't care about.
+ *
+ * Delivery is at least once: if any handler throws, the event is retried later for
+ * all handlers, so implementations must tolerate seeing the same event again.
+ * Handlers run on the dispatcher thread, never on a request thread.
+ */
+public interface OrderEventHandler {
+
+    void handle(OrderEvent event) throws Exception;
+}
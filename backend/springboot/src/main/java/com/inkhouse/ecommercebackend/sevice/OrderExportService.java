@@ -0,0 +1,35 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+
+    enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Writes every order to the stream, one row at a time.
+     *
+     * @return number of orders written
+     */
+    long exportOrders(OutputStream out, Format format) throws IOException;
+}
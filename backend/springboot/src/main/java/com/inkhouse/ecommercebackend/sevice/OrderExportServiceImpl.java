@@ -0,0 +1,103 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER =
+            "order_id,user_id,discount_id,subtotal_cents,discount_cents,tax_rate_basis,tax_cents,total_cents,status,placed_at,created_at,updated_at\n";
+
+    private final OrderRepository orderRepository;
+    private final ObjectWriter orderWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public OrderExportServiceImpl(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        // flushing after every row would turn each order into its own socket write
+        this.orderWriter = objectMapper.writerFor(Order.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Runs in a read-only transaction so the MySQL result set can stay open while we
+     * stream it. Each entity is detached once written, so the persistence context
+     * never grows past one row no matter how many orders there are.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream out, Format format) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamAllByOrderById()) {
+            return switch (format) {
+                case NDJSON -> writeNdjson(orders.iterator(), out);
+                case CSV -> writeCsv(orders.iterator(), out);
+            };
+        }
+    }
+
+    private long writeNdjson(Iterator<Order> orders, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator gen = orderWriter.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(new SerializedString("\n"));
+            while (orders.hasNext()) {
+                Order order = orders.next();
+                orderWriter.writeValue(gen, order);
+                entityManager.detach(order);
+                count++;
+            }
+            if (count > 0) {
+                gen.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<Order> orders, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        while (orders.hasNext()) {
+            Order order = orders.next();
+            writer.append(String.valueOf(order.getId())).append(',')
+                    .append(String.valueOf(order.getUserId())).append(',')
+                    .append(order.getDiscountId() == null ? "" : String.valueOf(order.getDiscountId())).append(',')
+                    .append(String.valueOf(order.getSubtotalCents())).append(',')
+                    .append(String.valueOf(order.getDiscountCents())).append(',')
+                    .append(String.valueOf(order.getTaxRateBasis())).append(',')
+                    .append(String.valueOf(order.getTaxCents())).append(',')
+                    .append(String.valueOf(order.getTotalCents())).append(',')
+                    .append(order.getStatus()).append(',')
+                    .append(String.valueOf(order.getPlacedAt())).append(',')
+                    .append(String.valueOf(order.getCreatedAt())).append(',')
+                    .append(String.valueOf(order.getUpdatedAt())).append('\n');
+            entityManager.detach(order);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+}
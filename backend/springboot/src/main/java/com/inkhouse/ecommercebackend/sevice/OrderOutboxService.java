@@ -0,0 +1,16 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.model.Order;
+
+import java.util.List;
+
+public interface OrderOutboxService {
+
+    // Write side: called by the order services inside their own transactions
+    void orderCreated(Order order);
+    void statusChanged(Integer orderId, String status);
+    void statusChanged(List<Integer> orderIds, String status);
+
+    // Delivers everything that is due; returns how many events were delivered
+    int dispatch();
+}
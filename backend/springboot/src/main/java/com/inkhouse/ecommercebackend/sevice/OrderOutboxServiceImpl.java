@@ -0,0 +1,223 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for order events.
+ *
+ * The write methods insert into order_events inside the caller's transaction
+ * (MANDATORY), so an event exists exactly when the order change it describes
+ * committed, and the request only pays for one extra INSERT.
+ *
+ * A scheduled dispatcher claims due events in batches: a short READ COMMITTED
+ * transaction picks them with SELECT ... FOR UPDATE SKIP LOCKED (so several
+ * instances can poll side by side), stamps them claimed_until = now + outbox.lease-ms
+ * and commits. Handlers then run with no transaction or row lock held, so a slow
+ * handler never blocks order writes. The batch's delivered events are then deleted
+ * with one statement and its failed ones pushed back with an exponential backoff in
+ * one JDBC batch. If the instance dies before that its claims lapse and the events
+ * are delivered again (at least once).
+ * After outbox.max-attempts failures an event is left in the table with its last
+ * error and no longer polled.
+ */
+@Service
+public class OrderOutboxServiceImpl implements OrderOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxServiceImpl.class);
+
+    private static final long MAX_BACKOFF_MS = 3_600_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_events (order_id, event_type, payload, created_at, available_at, attempts) " +
+                    "VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String CLAIM_SQL =
+            "SELECT event_id, order_id, event_type, payload, created_at, attempts FROM order_events " +
+                    "WHERE available_at <= ? AND attempts < ? AND (claimed_until IS NULL OR claimed_until <= ?) " +
+                    "ORDER BY available_at, event_id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // attempts guards against a claim that lapsed and was taken over by another instance
+    private static final String RETRY_SQL =
+            "UPDATE order_events SET attempts = ?, available_at = ?, last_error = ?, claimed_until = NULL " +
+                    "WHERE event_id = ? AND attempts = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate claimTransaction;
+    private final ObjectMapper objectMapper;
+    private final List<OrderEventHandler> handlers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long leaseMillis;
+
+    @Autowired
+    public OrderOutboxServiceImpl(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  List<OrderEventHandler> handlers,
+                                  @Value("${outbox.batch-size:200}") int batchSize,
+                                  @Value("${outbox.max-attempts:10}") int maxAttempts,
+                                  @Value("${outbox.retry-backoff-ms:5000}") long retryBackoffMillis,
+                                  @Value("${outbox.lease-ms:60000}") long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        // no gap locks: claiming must not hold up checkouts inserting new events
+        this.claimTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.claimTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.objectMapper = objectMapper;
+        this.handlers = handlers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUserId());
+        payload.put("status", order.getStatus());
+        payload.put("totalCents", order.getTotalCents());
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(INSERT_SQL, order.getId(), OrderEvent.CREATED, json(payload), now, now);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Integer orderId, String status) {
+        statusChanged(List.of(orderId), status);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(List<Integer> orderIds, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(orderIds.size());
+        for (Integer orderId : orderIds) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("orderId", orderId);
+            payload.put("status", status);
+            rows.add(new Object[]{orderId, OrderEvent.STATUS_CHANGED, json(payload), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Runs batches until one comes back short, so a backlog drains in one pass.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public int dispatch() {
+        int delivered = 0;
+        while (true) {
+            List<OrderEvent> events = claimTransaction.execute(tx -> claim());
+            delivered += deliverAll(events);
+            if (events.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+
+    private List<OrderEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderEvent> events = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> {
+            OrderEvent event = new OrderEvent();
+            event.setId(rs.getLong(1));
+            event.setOrderId(rs.getInt(2));
+            event.setEventType(rs.getString(3));
+            event.setPayload(rs.getString(4));
+            event.setCreatedAt(rs.getObject(5, LocalDateTime.class));
+            event.setAttempts(rs.getInt(6));
+            return event;
+        }, now, maxAttempts, now, batchSize);
+        if (!events.isEmpty()) {
+            List<Object> args = new ArrayList<>(events.size() + 1);
+            args.add(now.plusNanos(leaseMillis * 1_000_000));
+            for (OrderEvent event : events) {
+                args.add(event.getId());
+            }
+            String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+            jdbcTemplate.update("UPDATE order_events SET claimed_until = ? WHERE event_id IN (" + placeholders + ")",
+                    args.toArray());
+        }
+        return events;
+    }
+
+    // Runs outside any transaction; the outcomes are written by two autocommit statements
+    private int deliverAll(List<OrderEvent> events) {
+        List<Object> delivered = new ArrayList<>(events.size());
+        List<Object[]> retries = new ArrayList<>();
+        for (OrderEvent event : events) {
+            Exception failure = deliver(event);
+            if (failure == null) {
+                delivered.add(event.getId());
+                continue;
+            }
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on order event {} ({} for order {}) after {} attempts",
+                        event.getId(), event.getEventType(), event.getOrderId(), attempts, failure);
+            } else {
+                log.warn("Order event {} failed (attempt {}), will retry: {}", event.getId(), attempts, failure.toString());
+            }
+            retries.add(new Object[]{attempts, LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000),
+                    truncate(failure.toString()), event.getId(), event.getAttempts()});
+        }
+        if (!delivered.isEmpty()) {
+            String placeholders = String.join(",", Collections.nCopies(delivered.size(), "?"));
+            jdbcTemplate.update("DELETE FROM order_events WHERE event_id IN (" + placeholders + ")", delivered.toArray());
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+        }
+        return delivered.size();
+    }
+
+    private Exception deliver(OrderEvent event) {
+        for (OrderEventHandler handler : handlers) {
+            try {
+                handler.handle(event);
+            } catch (Exception e) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    // retry-backoff-ms, doubled per failed attempt, capped at an hour
+    private long backoffMillis(int attempts) {
+        return Math.min(MAX_BACKOFF_MS, retryBackoffMillis << Math.min(attempts - 1, 20));
+    }
+
+    private String json(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event", e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -1,5 +1,8 @@
 package com.inkhouse.ecommercebackend.sevice;
 
+import com.inkhouse.ecommercebackend.dto.BulkStatusRequest;
+import com.inkhouse.ecommercebackend.dto.BulkStatusResult;
+import com.inkhouse.ecommercebackend.dto.CursorPage;
 import com.inkhouse.ecommercebackend.model.Order;
 
 import java.util.List;
@@ -7,9 +10,12 @@ import java.util.Optional;
 
 public interface OrderService {
     List<Order> getAllOrders();
+    CursorPage<Order> getOrdersPage(String after, Integer limit);
     Optional<Order> getOrderById(Integer id);
     List<Order> getOrdersByUserId(Integer userId);
-    Order createOrder(Order order);
+    CursorPage<Order> getOrdersByUserIdPage(Integer userId, String after, Integer limit);
     Order updateOrderStatus(Integer id, String status);
+    BulkStatusResult updateOrderStatuses(BulkStatusRequest request);
     void deleteOrder(Integer id);
+    int repriceOrders(String status, int taxRateBasis);
 }
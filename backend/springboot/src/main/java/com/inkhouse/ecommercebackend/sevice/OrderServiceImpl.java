@@ -1,55 +1,266 @@
 package com.inkhouse.ecommercebackend.sevice;
 
+import com.inkhouse.ecommercebackend.dto.BulkStatusRequest;
+import com.inkhouse.ecommercebackend.dto.BulkStatusResult;
+import com.inkhouse.ecommercebackend.dto.CursorPage;
 import com.inkhouse.ecommercebackend.model.Order;
 import com.inkhouse.ecommercebackend.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    // orders re-taxed per transaction by repriceOrders
+    private static final int REPRICE_CHUNK = 5_000;
+    // orders moved per transaction by updateOrderStatuses
+    private static final int STATUS_CHUNK = 1_000;
+    // mirrors ENUM('placed','fulfilled','cancelled') on orders.status
+    private static final Set<String> STATUSES = Set.of("placed", "fulfilled", "cancelled");
+
     private final OrderRepository orderRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderOutboxService orderOutboxService;
+    private final SalesRollupService salesRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            OrderSummaryService orderSummaryService,
+                            OrderOutboxService orderOutboxService,
+                            SalesRollupService salesRollupService,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate) {
         this.orderRepository = orderRepository;
+        this.orderSummaryService = orderSummaryService;
+        this.orderOutboxService = orderOutboxService;
+        this.salesRollupService = salesRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersPage(String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Order> rows;
+        if (after == null || after.isBlank()) {
+            rows = orderRepository.findAllByOrderByPlacedAtDescIdDesc(fetch);
+        } else {
+            String[] key = PageCursors.decode(after, 2);
+            rows = orderRepository.findPageBefore(LocalDateTime.parse(key[0]), Integer.valueOf(key[1]), fetch);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Integer id) {
         return orderRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Integer userId) {
         return orderRepository.findByUserId(userId);
     }
 
     @Override
-    public Order createOrder(Order order) {
-        return orderRepository.save(order);
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersByUserIdPage(Integer userId, String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Order> rows;
+        if (after == null || after.isBlank()) {
+            rows = orderRepository.findByUserIdOrderByPlacedAtDescIdDesc(userId, fetch);
+        } else {
+            String[] key = PageCursors.decode(after, 2);
+            rows = orderRepository.findUserPageBefore(userId, LocalDateTime.parse(key[0]), Integer.valueOf(key[1]), fetch);
+        }
+        return toPage(rows, pageSize);
     }
 
     @Override
+    @Transactional
     public Order updateOrderStatus(Integer id, String status) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        String fromStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderSummaryService.updateStatus(id, status);
+        orderOutboxService.statusChanged(id, status);
+        salesRollupService.statusChanged(saved, fromStatus);
+        return saved;
+    }
+
+    /**
+     * Moves orders between statuses in chunks of STATUS_CHUNK, each in its own transaction:
+     * one locking SELECT picks the orders still in fromStatus, one UPDATE moves them, and
+     * one UPDATE keeps order_summaries in step, plus one batched outbox insert and one SELECT
+     * of the moved orders' amounts for the sales rollups. A chunk that fails rolls back on its own;
+     * earlier chunks stay committed.
+     */
+    @Override
+    public BulkStatusResult updateOrderStatuses(BulkStatusRequest request) {
+        String from = request.fromStatus();
+        String to = request.toStatus();
+        if (from == null || to == null || !STATUSES.contains(from) || !STATUSES.contains(to) || from.equals(to)) {
+            throw new IllegalArgumentException("Unsupported status transition: " + from + " -> " + to);
+        }
+
+        List<Integer> updated = new ArrayList<>();
+        List<Integer> skipped = new ArrayList<>();
+        if (request.orderIds() != null) {
+            List<Integer> requested = request.orderIds().stream().distinct().toList();
+            for (int start = 0; start < requested.size(); start += STATUS_CHUNK) {
+                List<Integer> chunk = requested.subList(start, Math.min(start + STATUS_CHUNK, requested.size()));
+                List<Integer> moved = transactionTemplate.execute(tx -> moveStatus(orderRepository.lockIdsInStatus(chunk, from), from, to));
+                updated.addAll(moved);
+                Set<Integer> movedSet = new HashSet<>(moved);
+                for (Integer id : chunk) {
+                    if (!movedSet.contains(id)) {
+                        skipped.add(id);
+                    }
+                }
+            }
+        } else {
+            LocalDateTime before = request.placedBefore() != null ? request.placedBefore() : LocalDateTime.now();
+            int afterId = 0;
+            while (true) {
+                int cursor = afterId;
+                List<Integer> moved = transactionTemplate.execute(tx ->
+                        moveStatus(orderRepository.lockNextIdsInStatus(from, before, cursor, STATUS_CHUNK), from, to));
+                updated.addAll(moved);
+                if (moved.size() < STATUS_CHUNK) {
+                    break;
+                }
+                afterId = moved.get(moved.size() - 1);
+            }
+        }
+        return new BulkStatusResult(updated, skipped);
+    }
+
+    private List<Integer> moveStatus(List<Integer> ids, String fromStatus, String status) {
+        if (!ids.isEmpty()) {
+            orderRepository.updateStatusIn(ids, status, LocalDateTime.now());
+            orderSummaryService.updateStatuses(ids, status);
+            orderOutboxService.statusChanged(ids, status);
+            salesRollupService.statusesChanged(ids, fromStatus, status);
+        }
+        return ids;
     }
 
     @Override
+    @Transactional
     public void deleteOrder(Integer id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        orderSummaryService.removeOrder(id);
+        salesRollupService.orderRemoved(order);
         orderRepository.delete(order);
     }
+
+    /**
+     * Re-taxes every order in the given status at a new rate (e.g. after a tax change),
+     * keeping subtotals and discounts. Orders are read by id range in chunks, priced
+     * with PricingEngine.retax over reused arrays, and written back with one JDBC
+     * batch per chunk. Each chunk is read FOR UPDATE in the transaction that writes
+     * it, so an order whose status or totals change meanwhile can't be overwritten
+     * with figures computed from the old row.
+     */
+    @Override
+    public int repriceOrders(String status, int newTaxRateBasis) {
+        int[] ids = new int[REPRICE_CHUNK];
+        int[] subtotals = new int[REPRICE_CHUNK];
+        int[] discounts = new int[REPRICE_CHUNK];
+        int[] taxes = new int[REPRICE_CHUNK];
+        int[] totals = new int[REPRICE_CHUNK];
+
+        int repriced = 0;
+        int afterId = 0;
+        while (true) {
+            int from = afterId;
+            int n = transactionTemplate.execute(tx -> {
+                int[] count = {0};
+                jdbcTemplate.query(
+                        "SELECT order_id, subtotal_cents, discount_cents FROM orders " +
+                                "WHERE status = ? AND order_id > ? ORDER BY order_id LIMIT ? FOR UPDATE",
+                        rs -> {
+                            int i = count[0]++;
+                            ids[i] = rs.getInt(1);
+                            subtotals[i] = rs.getInt(2);
+                            discounts[i] = rs.getInt(3);
+                        },
+                        status, from, REPRICE_CHUNK);
+                int rows = count[0];
+                if (rows == 0) {
+                    return 0;
+                }
+
+                PricingEngine.retax(rows, subtotals, discounts, newTaxRateBasis, taxes, totals);
+                salesRollupService.totalsChanging(rows, ids, taxes, totals);
+                jdbcTemplate.batchUpdate(
+                        "UPDATE orders SET tax_rate_basis = ?, tax_cents = ?, total_cents = ? WHERE order_id = ?",
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                ps.setInt(1, newTaxRateBasis);
+                                ps.setInt(2, taxes[i]);
+                                ps.setInt(3, totals[i]);
+                                ps.setInt(4, ids[i]);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return rows;
+                            }
+                        });
+                orderSummaryService.updateTotals(rows, ids, taxes, totals);
+                return rows;
+            });
+            if (n == 0) {
+                return repriced;
+            }
+            repriced += n;
+            afterId = ids[n - 1];
+            if (n < REPRICE_CHUNK) {
+                return repriced;
+            }
+        }
+    }
+
+    // Trims the look-ahead row and turns the last (placed_at, id) into the next cursor
+    private CursorPage<Order> toPage(List<Order> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Order> page = rows.subList(0, pageSize);
+        Order last = page.get(pageSize - 1);
+        return new CursorPage<>(page, PageCursors.encode(last.getPlacedAt().toString(), String.valueOf(last.getId())));
+    }
 }
@@ -0,0 +1,25 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.OrderSummaryFilter;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderSummary;
+
+import java.util.List;
+
+public interface OrderSummaryService {
+
+    enum SortOrder { NEWEST, LARGEST }
+
+    // Write side: called by the order services inside their own transactions
+    void recordOrder(Order order, int itemCount);
+    void updateStatus(Integer orderId, String status);
+    void updateStatuses(List<Integer> orderIds, String status);
+    void removeOrder(Integer orderId);
+    void updateTotals(int count, int[] orderIds, int[] taxCents, int[] totalCents);
+
+    // Read side
+    CursorPage<OrderSummary> search(OrderSummaryFilter filter, SortOrder sort, String after, Integer limit);
+
+    int rebuild();
+}
@@ -0,0 +1,172 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.OrderSummaryFilter;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderSummary;
+import com.inkhouse.ecommercebackend.repository.OrderSummaryRepository;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains order_summaries incrementally and serves the admin order list from it.
+ *
+ * Write methods join the caller's transaction (MANDATORY), so a summary row can
+ * never commit without the order change that produced it, or vice versa.
+ */
+@Service
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO order_summaries (order_id, user_id, customer_email, status, placed_at, " +
+                    "item_count, subtotal_cents, discount_cents, tax_cents, total_cents) " +
+                    "SELECT o.order_id, o.user_id, u.email, o.status, o.placed_at, COALESCE(i.units, 0), " +
+                    "o.subtotal_cents, o.discount_cents, o.tax_cents, o.total_cents " +
+                    "FROM orders o " +
+                    "JOIN users u ON u.user_id = o.user_id " +
+                    "LEFT JOIN (SELECT order_id, SUM(qty) AS units FROM order_items GROUP BY order_id) i " +
+                    "ON i.order_id = o.order_id";
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderSummaryServiceImpl(OrderSummaryRepository orderSummaryRepository, JdbcTemplate jdbcTemplate) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(Order order, int itemCount) {
+        int inserted = orderSummaryRepository.insertForOrder(order.getId(), order.getUserId(), order.getStatus(),
+                order.getPlacedAt(), itemCount, order.getSubtotalCents(), order.getDiscountCents(),
+                order.getTaxCents(), order.getTotalCents());
+        if (inserted == 0) {
+            throw new IllegalArgumentException("User not found with id: " + order.getUserId());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatus(Integer orderId, String status) {
+        orderSummaryRepository.updateStatus(orderId, status);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatuses(List<Integer> orderIds, String status) {
+        if (!orderIds.isEmpty()) {
+            orderSummaryRepository.updateStatusIn(orderIds, status);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeOrder(Integer orderId) {
+        orderSummaryRepository.deleteByOrderId(orderId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateTotals(int count, int[] orderIds, int[] taxCents, int[] totalCents) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE order_summaries SET tax_cents = ?, total_cents = ? WHERE order_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, taxCents[i]);
+                        ps.setInt(2, totalCents[i]);
+                        ps.setInt(3, orderIds[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+    }
+
+    /**
+     * One keyset page of summaries. Each sort has an index ending in order_id on its
+     * own and behind customer_email and behind status, so with at most one of those
+     * filters a page is a bounded range scan. A date range narrows the scan when
+     * sorting by newest; sorted by largest, or with both filters, the extra condition
+     * is checked against each row the scan reads.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> search(OrderSummaryFilter filter, SortOrder sort, String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        String[] key = after == null || after.isBlank() ? null : PageCursors.decode(after, 2);
+
+        Specification<OrderSummary> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.customerEmail() != null) {
+                predicates.add(cb.equal(root.get("customerEmail"), filter.customerEmail()));
+            }
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.placedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("placedAt"), filter.placedFrom()));
+            }
+            if (filter.placedTo() != null) {
+                predicates.add(cb.lessThan(root.get("placedAt"), filter.placedTo()));
+            }
+            if (key != null) {
+                Integer id = Integer.valueOf(key[1]);
+                if (sort == SortOrder.LARGEST) {
+                    Integer total = Integer.valueOf(key[0]);
+                    predicates.add(cb.or(
+                            cb.lessThan(root.get("totalCents"), total),
+                            cb.and(cb.equal(root.get("totalCents"), total), cb.lessThan(root.get("orderId"), id))));
+                } else {
+                    LocalDateTime placedAt = LocalDateTime.parse(key[0]);
+                    predicates.add(cb.or(
+                            cb.lessThan(root.get("placedAt"), placedAt),
+                            cb.and(cb.equal(root.get("placedAt"), placedAt), cb.lessThan(root.get("orderId"), id))));
+                }
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        Sort order = sort == SortOrder.LARGEST
+                ? Sort.by(Sort.Direction.DESC, "totalCents", "orderId")
+                : Sort.by(Sort.Direction.DESC, "placedAt", "orderId");
+        List<OrderSummary> rows = orderSummaryRepository.findBy(spec, q -> q.sortBy(order).limit(pageSize + 1).all());
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<OrderSummary> page = rows.subList(0, pageSize);
+        OrderSummary last = page.get(pageSize - 1);
+        String sortKey = sort == SortOrder.LARGEST ? String.valueOf(last.getTotalCents()) : last.getPlacedAt().toString();
+        return new CursorPage<>(page, PageCursors.encode(sortKey, String.valueOf(last.getOrderId())));
+    }
+
+    /**
+     * Recomputes the whole table from orders/users/order_items, e.g. after the first
+     * deploy or after orders were changed outside this service (such as by
+     * sp_place_order or a customer email change).
+     */
+    @Override
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM order_summaries");
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+}
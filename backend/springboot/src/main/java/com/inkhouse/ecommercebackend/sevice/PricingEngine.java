@@ -0,0 +1,109 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+/**
+ * Order pricing in integer cents and basis points, matching sp_place_order:
+ * subtotal = sum(qty * unit price), percent discounts round down, fixed discounts
+ * are cents, the discount never exceeds the subtotal, and tax on the discounted
+ * amount rounds half up.
+ *
+ * Everything works on primitives. The batch methods take parallel arrays (one slot
+ * per order, lines laid out back to back with an offsets array) and write into
+ * caller-owned output arrays, so repricing thousands of carts or orders allocates
+ * nothing inside the loop.
+ */
+public final class PricingEngine {
+
+    public static final int DEFAULT_TAX_RATE_BASIS = 825; // 8.25%
+
+    public static final byte NO_DISCOUNT = 0;
+    public static final byte PERCENT = 1;
+    public static final byte FIXED = 2;
+
+    private PricingEngine() {
+    }
+
+    /**
+     * Maps discount_codes.type ('percent' / 'fixed') to the engine's constants.
+     */
+    public static byte discountType(String type) {
+        if (type == null) {
+            return NO_DISCOUNT;
+        }
+        return switch (type) {
+            case "percent" -> PERCENT;
+            case "fixed" -> FIXED;
+            default -> throw new IllegalArgumentException("Unknown discount type: " + type);
+        };
+    }
+
+    /**
+     * Sum of qty[i] * unitPriceCents[i] for i in [from, to).
+     *
+     * @throws ArithmeticException if the subtotal doesn't fit in an INT column
+     */
+    public static int subtotalCents(int[] qty, int[] unitPriceCents, int from, int to) {
+        int subtotal = 0;
+        for (int i = from; i < to; i++) {
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(qty[i], unitPriceCents[i]));
+        }
+        return subtotal;
+    }
+
+    /**
+     * percent: basis points of the subtotal, rounded down (1000 = 10.00%); fixed: cents.
+     * Never more than the subtotal.
+     */
+    public static int discountCents(byte type, int valueBasis, int subtotalCents) {
+        long cents = switch (type) {
+            case PERCENT -> (long) subtotalCents * valueBasis / 10_000;
+            case FIXED -> valueBasis;
+            default -> 0;
+        };
+        return (int) Math.max(0, Math.min(cents, subtotalCents));
+    }
+
+    /**
+     * Tax on the discounted amount, rounded half up like MySQL ROUND() on positive values.
+     */
+    public static int taxCents(int taxableCents, int rateBasis) {
+        return (int) (((long) taxableCents * rateBasis + 5_000) / 10_000);
+    }
+
+    public static int totalCents(int subtotalCents, int discountCents, int taxCents) {
+        return Math.addExact(subtotalCents - discountCents, taxCents);
+    }
+
+    /**
+     * Prices {@code count} carts in one pass.
+     *
+     * Lines of cart c are at [lineStart[c], lineStart[c + 1]) in qty/unitPriceCents.
+     * discountType/discountValue hold each cart's discount (NO_DISCOUNT for none).
+     * Results land in the four output arrays at index c.
+     */
+    public static void priceCarts(int count, int[] lineStart, int[] qty, int[] unitPriceCents,
+                                  byte[] discountType, int[] discountValue, int taxRateBasis,
+                                  int[] subtotalOut, int[] discountOut, int[] taxOut, int[] totalOut) {
+        for (int c = 0; c < count; c++) {
+            int subtotal = subtotalCents(qty, unitPriceCents, lineStart[c], lineStart[c + 1]);
+            int discount = discountCents(discountType[c], discountValue[c], subtotal);
+            int tax = taxCents(subtotal - discount, taxRateBasis);
+            subtotalOut[c] = subtotal;
+            discountOut[c] = discount;
+            taxOut[c] = tax;
+            totalOut[c] = totalCents(subtotal, discount, tax);
+        }
+    }
+
+    /**
+     * Recomputes tax and total for {@code count} orders at a new tax rate, keeping
+     * their subtotals and discounts.
+     */
+    public static void retax(int count, int[] subtotalCents, int[] discountCents, int taxRateBasis,
+                             int[] taxOut, int[] totalOut) {
+        for (int i = 0; i < count; i++) {
+            int tax = taxCents(subtotalCents[i] - discountCents[i], taxRateBasis);
+            taxOut[i] = tax;
+            totalOut[i] = totalCents(subtotalCents[i], discountCents[i], tax);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import com.inkhouse.ecommercebackend.repository.ProductVariantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntSupplier;
+
+/**
+ * In-memory faceted filter over the catalog: active status, price band, stock and
+ * the sizes/finishes of a product's active variants.
+ *
+ * Every product gets a small ordinal (reused after deletes), and each facet value
+ * keeps a bitset over the ordinals, so the bitsets stay dense and 1 bit per product
+ * however the ids are spread. A query ORs the chosen values within a facet, ANDs
+ * the facets together, and counts each value against the other facets' selections,
+ * so the UI can show how many results picking it would give.
+ *
+ * Queries read an immutable state through one volatile field. Writers (CatalogCache
+ * under its lock, InventoryService on stock changes) are serialized and publish a new
+ * state, copying only the bitsets that changed.
+ *
+ * Variants are read from the database when the catalog is loaded; bulk imports (the
+ * only variant write path) reload it. Stock starts from qty_available and then
+ * follows the inventory ledger: in stock means units can be reserved right now,
+ * on the product itself or on an active variant.
+ */
+@Component
+public class ProductFilterIndex implements CatalogListener, StockListener {
+
+    public enum Facet { ACTIVE, PRICE, STOCK, SIZE, FINISH }
+
+    public record Result(int total, List<Integer> ids, boolean hasMore, Map<String, Map<String, Integer>> facets) {
+    }
+
+    private record Variant(int id, String size, String finish, boolean active) {
+    }
+
+    // What queries read; never modified after it is published
+    private record State(int[] ids, long[] live, Map<Facet, Map<String, long[]>> bitmaps) {
+    }
+
+    private static final List<String> ACTIVE_VALUES = List.of("true", "false");
+    private static final List<String> STOCK_VALUES = List.of("in", "out");
+
+    private final ProductVariantRepository variantRepository;
+    private final int[] priceEdges;
+    private final List<String> priceBands;
+
+    private volatile State state;
+
+    // writer side, guarded by this
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Integer, ProductView> products = new HashMap<>();
+    private final Map<Integer, List<Variant>> variantsByProduct = new HashMap<>();
+    private final Map<Integer, Integer> productByVariant = new HashMap<>();
+    private final Set<Integer> productsInStock = new HashSet<>();
+    private final Set<Integer> variantsInStock = new HashSet<>();
+
+    @Autowired
+    public ProductFilterIndex(ProductVariantRepository variantRepository,
+                              @Value("${catalog.filter.price-bands:1500,2500,4000}") int[] priceEdges) {
+        this.variantRepository = variantRepository;
+        this.priceEdges = priceEdges.clone();
+        Arrays.sort(this.priceEdges);
+        List<String> bands = new ArrayList<>(this.priceEdges.length + 1);
+        int low = 0;
+        for (int edge : this.priceEdges) {
+            bands.add(low + "-" + (edge - 1));
+            low = edge;
+        }
+        bands.add(low + "+");
+        this.priceBands = List.copyOf(bands);
+        this.state = new State(new int[0], new long[0], emptyBitmaps());
+    }
+
+    @Override
+    public void onReload(CatalogSnapshot snapshot) {
+        rebuild(snapshot.views(), variantRepository.findAll());
+    }
+
+    /**
+     * Drops everything and indexes these products and their variants.
+     */
+    public synchronized void rebuild(Collection<ProductView> views, List<ProductVariant> variants) {
+        ordinals.clear();
+        freeOrdinals.clear();
+        products.clear();
+        variantsByProduct.clear();
+        productByVariant.clear();
+        productsInStock.clear();
+        variantsInStock.clear();
+
+        for (ProductVariant variant : variants) {
+            variantsByProduct.computeIfAbsent(variant.getProductId(), k -> new ArrayList<>())
+                    .add(new Variant(variant.getId(), variant.getSizeLabel(), variant.getFinishLabel(),
+                            Boolean.TRUE.equals(variant.getIsActive())));
+            productByVariant.put(variant.getId(), variant.getProductId());
+            if (variant.getQtyAvailable() != null && variant.getQtyAvailable() > 0) {
+                variantsInStock.add(variant.getId());
+            }
+        }
+
+        List<ProductView> sorted = new ArrayList<>(views);
+        sorted.sort((a, b) -> Integer.compare(a.id(), b.id()));
+        int words = Math.max(1, (sorted.size() + 63) >>> 6);
+        int[] ids = new int[sorted.size()];
+        long[] live = new long[words];
+        Map<Facet, Map<String, long[]>> bitmaps = emptyBitmaps();
+        for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+            ProductView view = sorted.get(ordinal);
+            products.put(view.id(), view);
+            ordinals.put(view.id(), ordinal);
+            if (view.qtyAvailable() != null && view.qtyAvailable() > 0) {
+                productsInStock.add(view.id());
+            }
+            ids[ordinal] = view.id();
+            live[ordinal >>> 6] |= 1L << ordinal;
+            for (Map.Entry<Facet, Set<String>> facet : valuesOf(view).entrySet()) {
+                for (String value : facet.getValue()) {
+                    long[] bits = bitmaps.get(facet.getKey()).computeIfAbsent(value, k -> new long[words]);
+                    bits[ordinal >>> 6] |= 1L << ordinal;
+                }
+            }
+        }
+        state = new State(ids, live, bitmaps);
+    }
+
+    @Override
+    public synchronized void onPut(ProductView product) {
+        ProductView previous = products.put(product.id(), product);
+        if (previous == null && product.qtyAvailable() != null && product.qtyAvailable() > 0) {
+            // a known product's stock follows the inventory ledger, not the (possibly stale) row
+            productsInStock.add(product.id());
+        }
+        publish(product.id(), valuesOf(product));
+    }
+
+    @Override
+    public synchronized void onRemove(Integer productId) {
+        if (products.remove(productId) == null) {
+            return;
+        }
+        productsInStock.remove(productId);
+        List<Variant> variants = variantsByProduct.remove(productId);
+        if (variants != null) {
+            for (Variant variant : variants) {
+                productByVariant.remove(variant.id());
+                variantsInStock.remove(variant.id());
+            }
+        }
+        publish(productId, null);
+    }
+
+    @Override
+    public synchronized void onStockChanged(InventoryService.Sku sku, IntSupplier available) {
+        boolean isProduct = sku.type() == InventoryService.SkuType.PRODUCT;
+        Integer productId = isProduct ? sku.id() : productByVariant.get(sku.id());
+        if (productId == null || !products.containsKey(productId)) {
+            return;
+        }
+        Set<Integer> inStock = isProduct ? productsInStock : variantsInStock;
+        boolean changed = available.getAsInt() > 0 ? inStock.add(sku.id()) : inStock.remove(sku.id());
+        if (changed) {
+            publish(productId, valuesOf(products.get(productId)));
+        }
+    }
+
+    /**
+     * Products matching every facet in {@code selected} (any of the listed values within
+     * a facet), ordered by id and starting after {@code afterId}, plus per-value counts.
+     *
+     * @throws IllegalArgumentException for an unknown active/stock/price value
+     */
+    public Result filter(Map<Facet, ? extends Collection<String>> selected, Integer afterId, int limit) {
+        State current = state;
+        int words = current.live().length;
+
+        Map<Facet, long[]> chosen = new EnumMap<>(Facet.class);
+        for (Map.Entry<Facet, ? extends Collection<String>> e : selected.entrySet()) {
+            if (e.getValue() == null || e.getValue().isEmpty()) {
+                continue;
+            }
+            List<String> known = closedValues(e.getKey());
+            long[] union = new long[words];
+            for (String value : e.getValue()) {
+                if (known != null && !known.contains(value)) {
+                    throw new IllegalArgumentException("Unknown " + name(e.getKey()) + " value: " + value
+                            + " (expected one of " + known + ")");
+                }
+                or(union, current.bitmaps().get(e.getKey()).get(value));
+            }
+            chosen.put(e.getKey(), union);
+        }
+
+        long[] matches = current.live().clone();
+        for (long[] union : chosen.values()) {
+            and(matches, union);
+        }
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            // counts for this facet ignore its own selection, so alternatives don't read as 0
+            long[] base = matches;
+            if (chosen.containsKey(facet)) {
+                base = current.live().clone();
+                for (Map.Entry<Facet, long[]> other : chosen.entrySet()) {
+                    if (other.getKey() != facet) {
+                        and(base, other.getValue());
+                    }
+                }
+            }
+            Map<String, long[]> values = current.bitmaps().get(facet);
+            List<String> known = closedValues(facet);
+            Collection<String> listed = known != null ? known : new TreeSet<>(values.keySet());
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String value : listed) {
+                counts.put(value, intersectionCount(base, values.get(value)));
+            }
+            facets.put(name(facet), counts);
+        }
+
+        int total = cardinality(matches);
+        int kept = 0;
+        int[] ids = new int[total];
+        for (int w = 0; w < matches.length; w++) {
+            long word = matches[w];
+            while (word != 0) {
+                int id = current.ids()[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+                if (afterId == null || id > afterId) {
+                    ids[kept++] = id;
+                }
+            }
+        }
+        Arrays.sort(ids, 0, kept);
+        List<Integer> page = new ArrayList<>(Math.min(limit, kept));
+        for (int i = 0; i < kept && i < limit; i++) {
+            page.add(ids[i]);
+        }
+        return new Result(total, page, kept > limit, facets);
+    }
+
+    private Map<Facet, Set<String>> valuesOf(ProductView product) {
+        Map<Facet, Set<String>> values = new EnumMap<>(Facet.class);
+        values.put(Facet.ACTIVE, Set.of(Boolean.TRUE.equals(product.isActive()) ? "true" : "false"));
+        if (product.basePriceCents() != null) {
+            values.put(Facet.PRICE, Set.of(priceBand(product.basePriceCents())));
+        }
+        boolean inStock = productsInStock.contains(product.id());
+        Set<String> sizes = new HashSet<>();
+        Set<String> finishes = new HashSet<>();
+        for (Variant variant : variantsByProduct.getOrDefault(product.id(), List.of())) {
+            if (variant.active()) {
+                sizes.add(variant.size());
+                finishes.add(variant.finish());
+                inStock |= variantsInStock.contains(variant.id());
+            }
+        }
+        values.put(Facet.STOCK, Set.of(inStock ? "in" : "out"));
+        values.put(Facet.SIZE, sizes);
+        values.put(Facet.FINISH, finishes);
+        return values;
+    }
+
+    private String priceBand(int cents) {
+        int band = 0;
+        while (band < priceEdges.length && cents >= priceEdges[band]) {
+            band++;
+        }
+        return priceBands.get(band);
+    }
+
+    // Publishes a state with one product's bits replaced (values null = product removed)
+    private void publish(Integer productId, Map<Facet, Set<String>> values) {
+        State current = state;
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal == null) {
+            if (values == null) {
+                return;
+            }
+            // ordinals are handed out densely: with none free, the next one is the number in use
+            ordinal = freeOrdinals.isEmpty() ? ordinals.size() : freeOrdinals.pop();
+            ordinals.put(productId, ordinal);
+        } else if (values == null) {
+            ordinals.remove(productId);
+            freeOrdinals.push(ordinal);
+        }
+
+        int[] ids = current.ids();
+        if (values == null || ordinal >= ids.length || ids[ordinal] != productId) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length, ordinal + 1));
+            ids[ordinal] = values == null ? 0 : productId;
+        }
+        long[] live = values == null ? cleared(current.live(), ordinal) : set(current.live(), ordinal);
+
+        Map<Facet, Map<String, long[]>> bitmaps = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            Set<String> wanted = values == null ? Set.of() : values.getOrDefault(facet, Set.of());
+            Map<String, long[]> copy = new HashMap<>(current.bitmaps().get(facet));
+            for (Map.Entry<String, long[]> e : current.bitmaps().get(facet).entrySet()) {
+                if (test(e.getValue(), ordinal) && !wanted.contains(e.getKey())) {
+                    long[] bits = cleared(e.getValue(), ordinal);
+                    if (cardinality(bits) == 0) {
+                        copy.remove(e.getKey());
+                    } else {
+                        copy.put(e.getKey(), bits);
+                    }
+                }
+            }
+            for (String value : wanted) {
+                long[] bits = copy.get(value);
+                if (bits == null || !test(bits, ordinal)) {
+                    copy.put(value, set(bits == null ? new long[0] : bits, ordinal));
+                }
+            }
+            bitmaps.put(facet, copy);
+        }
+        state = new State(ids, live, bitmaps);
+    }
+
+    private static Map<Facet, Map<String, long[]>> emptyBitmaps() {
+        Map<Facet, Map<String, long[]>> bitmaps = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+        }
+        return bitmaps;
+    }
+
+    private List<String> closedValues(Facet facet) {
+        return switch (facet) {
+            case ACTIVE -> ACTIVE_VALUES;
+            case STOCK -> STOCK_VALUES;
+            case PRICE -> priceBands;
+            case SIZE, FINISH -> null;
+        };
+    }
+
+    private static String name(Facet facet) {
+        return facet.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean test(long[] bits, int bit) {
+        int word = bit >>> 6;
+        return word < bits.length && (bits[word] & (1L << bit)) != 0;
+    }
+
+    private static long[] set(long[] bits, int bit) {
+        long[] copy = Arrays.copyOf(bits, Math.max(bits.length, (bit >>> 6) + 1));
+        copy[bit >>> 6] |= 1L << bit;
+        return copy;
+    }
+
+    private static long[] cleared(long[] bits, int bit) {
+        long[] copy = bits.clone();
+        if ((bit >>> 6) < copy.length) {
+            copy[bit >>> 6] &= ~(1L << bit);
+        }
+        return copy;
+    }
+
+    // target |= bits, over target's length (bitsets may be shorter than the live set)
+    private static void or(long[] target, long[] bits) {
+        if (bits == null) {
+            return;
+        }
+        for (int i = 0; i < target.length && i < bits.length; i++) {
+            target[i] |= bits[i];
+        }
+    }
+
+    private static void and(long[] target, long[] bits) {
+        int common = Math.min(target.length, bits.length);
+        for (int i = 0; i < common; i++) {
+            target[i] &= bits[i];
+        }
+        Arrays.fill(target, common, target.length, 0L);
+    }
+
+    private static int intersectionCount(long[] a, long[] b) {
+        if (b == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < a.length && i < b.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    private static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ImportResult;
+
+/**
+ * Thrown when a bulk import stops at a bad row or a batch the database refuses.
+ * Batches written before it stay committed; {@link #getResult()} counts them.
+ */
+public class ProductImportException extends IllegalArgumentException {
+
+    private final ImportResult result;
+
+    public ProductImportException(ImportResult result, Throwable cause) {
+        super(result.error(), cause);
+        this.result = result;
+    }
+
+    public ImportResult getResult() {
+        return result;
+    }
+}
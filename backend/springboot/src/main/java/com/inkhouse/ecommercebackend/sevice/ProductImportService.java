@@ -0,0 +1,29 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    /**
+     * Imports a JSON array of ProductImportRow objects, streaming it element by element.
+     *
+     * @throws ProductImportException if an element or a batch is rejected
+     */
+    ImportResult importJson(InputStream in) throws IOException;
+
+    /**
+     * Imports CSV with the header
+     * product_ref,title,description,image_url,base_price_cents,qty_available,is_active,size_label,finish_label,variant_price_cents,variant_qty_available
+     *
+     * Only title and base_price_cents are required. Consecutive rows with the same
+     * product_ref describe one product, whose fields come from the first of them;
+     * every row that has a size_label adds a variant to it. A row without a
+     * product_ref is a product of its own.
+     *
+     * @throws ProductImportException if a row or a batch is rejected
+     */
+    ImportResult importCsv(InputStream in) throws IOException;
+}
@@ -0,0 +1,322 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.inkhouse.ecommercebackend.dto.ImportResult;
+import com.inkhouse.ecommercebackend.dto.ProductImportRow;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk catalog import.
+ *
+ * Input is read incrementally and written in chunks of catalog.import.batch-size
+ * products. Each chunk is its own transaction: products and variants are persisted,
+ * flushed as JDBC batches (ids come from the pooled table generator, so no
+ * per-row round trip), and the persistence context is cleared. At most one chunk
+ * is in memory at a time. Chunks already committed stay committed if a later row
+ * is rejected; the ProductImportException says how many.
+ *
+ * The catalog snapshot is rebuilt once at the end rather than per product, and
+ * also when an import stops after committing some chunks.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "product_ref", "title", "description", "image_url", "base_price_cents", "qty_available", "is_active",
+            "size_label", "finish_label", "variant_price_cents", "variant_qty_available");
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final CatalogCache catalogCache;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ProductImportServiceImpl(TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    CatalogCache catalogCache,
+                                    @Value("${catalog.import.batch-size:500}") int batchSize) {
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.catalogCache = catalogCache;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportResult importJson(InputStream in) throws IOException {
+        Importer importer = new Importer();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products");
+            }
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException(token == null
+                            ? "JSON array ends early at element " + index
+                            : "Expected a product object at element " + index);
+                }
+                ProductImportRow row = rowReader.readValue(parser);
+                importer.add(toProduct(row, "element " + index), toVariants(row.variants(), "element " + index));
+                index++;
+            }
+            return importer.finish();
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw importer.failed(e);
+        } finally {
+            importer.reloadCatalog();
+        }
+    }
+
+    @Override
+    public ImportResult importCsv(InputStream in) throws IOException {
+        Importer importer = new Importer();
+        try {
+            readCsv(new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8)), importer);
+            return importer.finish();
+        } catch (IllegalArgumentException e) {
+            throw importer.failed(e);
+        } finally {
+            importer.reloadCatalog();
+        }
+    }
+
+    private void readCsv(CsvReader csv, Importer importer) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("base_price_cents")) {
+            throw new IllegalArgumentException("CSV header must include title and base_price_cents, known columns: " + CSV_COLUMNS);
+        }
+
+        Product current = null;
+        String currentRef = null;
+        List<ProductVariant> currentVariants = new ArrayList<>();
+        Set<String> finishedRefs = new HashSet<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            String where = "line " + (csv.lineNumber() - 1);
+            // without product_ref every row is a product of its own
+            String ref = field(record, columns, "product_ref");
+            if (current == null || ref == null || !ref.equals(currentRef)) {
+                if (current != null) {
+                    importer.add(current, currentVariants);
+                    currentVariants = new ArrayList<>();
+                    if (currentRef != null) {
+                        finishedRefs.add(currentRef);
+                    }
+                }
+                if (ref != null && finishedRefs.contains(ref)) {
+                    throw new IllegalArgumentException("Rows for product_ref '" + ref + "' must be consecutive, at " + where);
+                }
+                currentRef = ref;
+                current = toProduct(new ProductImportRow(
+                        field(record, columns, "title"),
+                        field(record, columns, "description"),
+                        field(record, columns, "image_url"),
+                        intField(record, columns, "base_price_cents", where),
+                        intField(record, columns, "qty_available", where),
+                        boolField(record, columns, "is_active"),
+                        null), where);
+            }
+            String sizeLabel = field(record, columns, "size_label");
+            if (sizeLabel != null) {
+                currentVariants.add(toVariant(new ProductImportRow.Variant(
+                        sizeLabel,
+                        field(record, columns, "finish_label"),
+                        intField(record, columns, "variant_price_cents", where),
+                        intField(record, columns, "variant_qty_available", where),
+                        null), where));
+            }
+        }
+        if (current != null) {
+            importer.add(current, currentVariants);
+        }
+    }
+
+    /**
+     * Collects one chunk at a time and writes it when full.
+     */
+    private final class Importer {
+        private final long started = System.nanoTime();
+        private final List<Product> products = new ArrayList<>(batchSize);
+        private final List<List<ProductVariant>> variants = new ArrayList<>(batchSize);
+        private int productCount;
+        private int variantCount;
+        private int batches;
+
+        void add(Product product, List<ProductVariant> productVariants) {
+            products.add(product);
+            variants.add(productVariants);
+            if (products.size() >= batchSize) {
+                writeChunk();
+            }
+        }
+
+        ImportResult finish() {
+            if (!products.isEmpty()) {
+                writeChunk();
+            }
+            return result(null);
+        }
+
+        // what was committed before e stopped the import
+        ProductImportException failed(Exception e) {
+            return new ProductImportException(result(e.getMessage()), e);
+        }
+
+        void reloadCatalog() {
+            if (productCount > 0) {
+                catalogCache.reload();
+            }
+        }
+
+        private ImportResult result(String error) {
+            return new ImportResult(productCount, variantCount, batches,
+                    (System.nanoTime() - started) / 1_000_000, error);
+        }
+
+        private void writeChunk() {
+            int[] chunkVariants = {0};
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Product product : products) {
+                        entityManager.persist(product);
+                    }
+                    // variants need the product ids, which persist() has already assigned from the pool
+                    for (int i = 0; i < products.size(); i++) {
+                        for (ProductVariant variant : variants.get(i)) {
+                            variant.setProductId(products.get(i).getId());
+                            entityManager.persist(variant);
+                            chunkVariants[0]++;
+                        }
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (ConstraintViolationException | DataIntegrityViolationException e) {
+                // e.g. two variants of a product with the same size and finish
+                Throwable cause = e instanceof ConstraintViolationException violation ? violation.getSQLException()
+                        : ((DataIntegrityViolationException) e).getMostSpecificCause();
+                // first line only: drivers append the whole statement
+                String reason = String.valueOf(cause.getMessage()).lines().findFirst().orElse("");
+                throw new IllegalArgumentException("Batch " + (batches + 1) + " was rejected: " + reason, e);
+            }
+            productCount += products.size();
+            variantCount += chunkVariants[0];
+            batches++;
+            products.clear();
+            variants.clear();
+        }
+    }
+
+    private static Product toProduct(ProductImportRow row, String where) {
+        if (row.title() == null || row.title().isBlank()) {
+            throw new IllegalArgumentException("Missing title at " + where);
+        }
+        if (row.basePriceCents() == null || row.basePriceCents() < 0) {
+            throw new IllegalArgumentException("Missing or negative basePriceCents at " + where);
+        }
+        Product product = new Product();
+        product.setTitle(row.title());
+        product.setDescription(row.description());
+        product.setImageUrl(row.imageUrl());
+        product.setBasePriceCents(row.basePriceCents());
+        product.setQtyAvailable(row.qtyAvailable());
+        product.setIsActive(row.isActive());
+        return product;
+    }
+
+    private static List<ProductVariant> toVariants(List<ProductImportRow.Variant> rows, String where) {
+        if (rows == null || rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ProductVariant> variants = new ArrayList<>(rows.size());
+        for (ProductImportRow.Variant row : rows) {
+            variants.add(toVariant(row, where));
+        }
+        return variants;
+    }
+
+    private static ProductVariant toVariant(ProductImportRow.Variant row, String where) {
+        if (row.sizeLabel() == null || row.finishLabel() == null) {
+            throw new IllegalArgumentException("Variant needs sizeLabel and finishLabel at " + where);
+        }
+        if (row.priceCents() == null || row.priceCents() < 0) {
+            throw new IllegalArgumentException("Missing or negative variant price at " + where);
+        }
+        ProductVariant variant = new ProductVariant();
+        variant.setSizeLabel(row.sizeLabel());
+        variant.setFinishLabel(row.finishLabel());
+        variant.setPriceCents(row.priceCents());
+        variant.setQtyAvailable(row.qtyAvailable());
+        variant.setIsActive(row.isActive());
+        return variant;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer intField(List<String> record, Map<String, Integer> columns, String name, String where) {
+        String value = field(record, columns, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + name + " '" + value + "' at " + where);
+        }
+    }
+
+    private static Boolean boolField(List<String> record, Map<String, Integer> columns, String name) {
+        String value = field(record, columns, name);
+        if (value == null) {
+            return null;
+        }
+        return value.equals("1") || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("yes");
+    }
+}
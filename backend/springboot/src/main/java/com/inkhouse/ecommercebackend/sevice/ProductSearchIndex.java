@@ -0,0 +1,161 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product title and description.
+ *
+ * Tokens are kept in a sorted map so every query term can be matched as a prefix
+ * ("sky" finds "skyline") with a single range scan. A product must match every
+ * query term; results are ranked by how strongly they match (title over
+ * description, whole word over prefix) and then by id.
+ *
+ * Kept in sync by CatalogCache, so searching never touches the database.
+ */
+@Component
+public class ProductSearchIndex implements CatalogListener {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // token -> (product id -> weight of that token in the product)
+    private final ConcurrentSkipListMap<String, Map<Integer, Integer>> postings = new ConcurrentSkipListMap<>();
+    // product id -> tokens it was indexed under, so updates/removals can clean up
+    private final Map<Integer, Set<String>> tokensByProduct = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void onReload(CatalogSnapshot snapshot) {
+        postings.clear();
+        tokensByProduct.clear();
+        for (ProductView product : snapshot.views()) {
+            index(product);
+        }
+    }
+
+    @Override
+    public synchronized void onPut(ProductView product) {
+        unindex(product.id());
+        index(product);
+    }
+
+    @Override
+    public synchronized void onRemove(Integer productId) {
+        unindex(productId);
+    }
+
+    /**
+     * Returns the ids of matching products, best match first.
+     */
+    public List<Integer> search(String query, Integer limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int max = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        Map<Integer, Integer> scores = null;
+        for (String term : terms) {
+            Map<Integer, Integer> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                for (Map.Entry<Integer, Integer> e : scores.entrySet()) {
+                    e.setValue(e.getValue() + termScores.get(e.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Integer.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+        });
+
+        List<Integer> ids = new ArrayList<>(Math.min(max, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < max; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private Map<Integer, Integer> scoreTerm(String term) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        ConcurrentNavigableMap<String, Map<Integer, Integer>> matches =
+                postings.subMap(term, true, term + Character.MAX_VALUE, true);
+        for (Map.Entry<String, Map<Integer, Integer>> match : matches.entrySet()) {
+            int multiplier = match.getKey().equals(term) ? EXACT_MATCH_BONUS : 1;
+            for (Map.Entry<Integer, Integer> posting : match.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * multiplier, Integer::sum);
+            }
+        }
+        return scores;
+    }
+
+    private void index(ProductView product) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : tokenize(product.title())) {
+            weights.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(product.description())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>())
+                    .put(product.id(), e.getValue());
+        }
+        tokensByProduct.put(product.id(), weights.keySet());
+    }
+
+    private void unindex(Integer productId) {
+        Set<String> tokens = tokensByProduct.remove(productId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (k, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // Lower-cases, strips accents and splits on anything that isn't a letter or digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,15 +1,25 @@
 package com.inkhouse.ecommercebackend.sevice;
 
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.ProductFilterResult;
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
 import com.inkhouse.ecommercebackend.model.Product;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
     List<Product> getAllProducts();
+    CursorPage<Product> getProductsPage(String after, Integer limit);
+    CursorPage<ProductSummary> getProductSummariesPage(String after, Integer limit);
     Optional<Product> getProductById(Integer id);
+    CatalogSnapshot getCatalog();
     Product createProduct(Product product);
     Product updateProduct(Integer id, Product product);
     void deleteProduct(Integer id);
-    List<Product> searchProductsByTitle(String title);
+    List<ProductView> searchProductsByTitle(String title, Integer limit);
+    List<ProductSummary> searchProductSummaries(String query, Integer limit);
+    ProductFilterResult filterProducts(Map<ProductFilterIndex.Facet, List<String>> selected, String after, Integer limit);
 }
\ No newline at end of file
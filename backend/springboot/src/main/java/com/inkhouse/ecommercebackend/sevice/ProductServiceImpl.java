@@ -1,63 +1,209 @@
 package com.inkhouse.ecommercebackend.sevice;
 
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.ProductFilterResult;
+import com.inkhouse.ecommercebackend.dto.ProductSummary;
+import com.inkhouse.ecommercebackend.dto.ProductView;
 import com.inkhouse.ecommercebackend.model.Product;
 import com.inkhouse.ecommercebackend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFilterIndex filterIndex;
+    private final InventoryService inventoryService;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, CatalogCache catalogCache,
+                              ProductSearchIndex searchIndex, ProductFilterIndex filterIndex,
+                              InventoryService inventoryService) {
         this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
+        this.filterIndex = filterIndex;
+        this.inventoryService = inventoryService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsPage(String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        // fetch one extra row so we know whether another page exists without a COUNT(*)
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Product> rows;
+        if (after == null || after.isBlank()) {
+            rows = productRepository.findAllByOrderByIdAsc(fetch);
+        } else {
+            Integer afterId = Integer.valueOf(PageCursors.decode(after, 1)[0]);
+            rows = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, fetch);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Product> page = rows.subList(0, pageSize);
+        Product last = page.get(pageSize - 1);
+        return new CursorPage<>(page, PageCursors.encode(String.valueOf(last.getId())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummary> getProductSummariesPage(String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<ProductSummary> rows;
+        if (after == null || after.isBlank()) {
+            rows = productRepository.findSummaries(fetch);
+        } else {
+            Integer afterId = Integer.valueOf(PageCursors.decode(after, 1)[0]);
+            rows = productRepository.findSummariesAfter(afterId, fetch);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ProductSummary> page = rows.subList(0, pageSize);
+        return new CursorPage<>(page, PageCursors.encode(String.valueOf(page.get(pageSize - 1).id())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Integer id) {
         return productRepository.findById(id);
     }
 
     @Override
+    public CatalogSnapshot getCatalog() {
+        return catalogCache.current();
+    }
+
+    // Writes run in one read-write transaction so the read half of a read-modify-write
+    // goes to the primary too, never to a (possibly lagging) replica
+    @Override
+    @Transactional
     public Product createProduct(Product product) {
         // @PrePersist in Product will handle createdAt/updatedAt/default flags
-        return productRepository.save(product);
+        Product saved = productRepository.saveAndFlush(product);
+        afterCommit(() -> catalogCache.put(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Product updateProduct(Integer id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        if (productDetails.getVersion() != null && !productDetails.getVersion().equals(product.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
 
         product.setTitle(productDetails.getTitle());
         product.setDescription(productDetails.getDescription());
         product.setImageUrl(productDetails.getImageUrl());
         product.setBasePriceCents(productDetails.getBasePriceCents());
-        product.setQtyAvailable(productDetails.getQtyAvailable());
         product.setIsActive(productDetails.getIsActive());
 
-        return productRepository.save(product);
+        // flushed here so a concurrent edit fails as a version conflict before anything else happens
+        Product saved = productRepository.saveAndFlush(product);
+        // qty_available isn't updatable through the entity; route it through the
+        // inventory ledger so in-flight reservations and decrements are kept
+        if (productDetails.getQtyAvailable() != null) {
+            inventoryService.setStock(InventoryService.Sku.product(id), productDetails.getQtyAvailable());
+            saved.setQtyAvailable(productDetails.getQtyAvailable());
+        }
+        afterCommit(() -> catalogCache.put(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Integer id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         productRepository.delete(product);
+        afterCommit(() -> catalogCache.remove(id));
+    }
+
+    @Override
+    public List<ProductView> searchProductsByTitle(String title, Integer limit) {
+        // loading the snapshot also builds the search index the first time through
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<ProductView> results = new ArrayList<>();
+        for (Integer id : searchIndex.search(title, limit)) {
+            CatalogSnapshot.Entry entry = snapshot.get(id);
+            if (entry != null) {
+                results.add(entry.view());
+            }
+        }
+        return results;
     }
 
     @Override
-    public List<Product> searchProductsByTitle(String title) {
-        return productRepository.findByTitleContainingIgnoreCase(title);
+    public List<ProductSummary> searchProductSummaries(String query, Integer limit) {
+        List<ProductView> views = searchProductsByTitle(query, limit);
+        List<ProductSummary> results = new ArrayList<>(views.size());
+        for (ProductView view : views) {
+            results.add(ProductSummary.from(view));
+        }
+        return results;
+    }
+
+    @Override
+    public ProductFilterResult filterProducts(Map<ProductFilterIndex.Facet, List<String>> selected,
+                                              String after, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        Integer afterId = (after == null || after.isBlank()) ? null : Integer.valueOf(PageCursors.decode(after, 1)[0]);
+        // loading the snapshot also builds the filter index the first time through
+        CatalogSnapshot snapshot = catalogCache.current();
+        ProductFilterIndex.Result result = filterIndex.filter(selected, afterId, pageSize);
+
+        List<ProductSummary> items = new ArrayList<>(result.ids().size());
+        for (Integer id : result.ids()) {
+            CatalogSnapshot.Entry entry = snapshot.get(id);
+            if (entry != null) {
+                items.add(ProductSummary.from(entry.view()));
+            }
+        }
+        String nextCursor = result.hasMore()
+                ? PageCursors.encode(String.valueOf(result.ids().get(result.ids().size() - 1)))
+                : null;
+        return new ProductFilterResult(items, nextCursor, result.total(), result.facets());
+    }
+
+    // the catalog snapshot only ever shows committed rows
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,36 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.SalesReport;
+import com.inkhouse.ecommercebackend.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-hour and per-day sales totals (order count, subtotal, discount, tax, total)
+ * by status, kept in memory so revenue reports don't scan orders.
+ */
+public interface SalesRollupService {
+
+    enum Granularity { HOUR, DAY }
+
+    // Write side: called by the order services inside their own transactions;
+    // nothing is counted until the transaction commits
+    void orderPlaced(Order order);
+    void statusChanged(Order order, String fromStatus);
+    void statusesChanged(List<Integer> orderIds, String fromStatus, String toStatus);
+    void totalsChanging(int count, int[] orderIds, int[] taxCents, int[] totalCents);
+    void orderRemoved(Order order);
+
+    // Read side
+
+    /**
+     * Buckets overlapping [from, to), for one status or (status null) all of them.
+     *
+     * @throws IllegalArgumentException if the range is empty or the status is unknown
+     * @throws IllegalStateException if the startup rebuild hasn't finished yet
+     */
+    SalesReport report(LocalDateTime from, LocalDateTime to, Granularity granularity, String status);
+
+    long rebuild();
+}
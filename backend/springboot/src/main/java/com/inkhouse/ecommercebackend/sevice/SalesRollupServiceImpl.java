@@ -0,0 +1,541 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.SalesReport;
+import com.inkhouse.ecommercebackend.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sales totals per hour and per day of placed_at, split by status.
+ *
+ * Each granularity is a set of fixed-size long[] pages: bucket b lives in page
+ * b >> PAGE_BITS, and status s / field f of that bucket at
+ * ((b & (PAGE_SIZE - 1)) * STATUSES + s) * FIELDS + f. Only pages that have orders
+ * exist, so a stray placed_at in 1970 or 2099 costs one page. Ten years of hours
+ * is about 350 pages (10 MB); days fit in a handful.
+ *
+ * On startup the pages are built by one streaming pass over orders on a background
+ * thread (reports answer 503 until it's done). After that the order services report
+ * every change that moves money or status, and the change is added to both
+ * granularities once its transaction commits. Changes reported while a rebuild is
+ * scanning are held back, because the scan may or may not have seen them: a change
+ * that commits just before the scan's snapshot is taken can still be reported
+ * after the rebuild started. Each change records its orders' state before and
+ * after, so when the scan is done every order that changed meanwhile has its state
+ * as the scan saw it (read again in the scan's repeatable-read transaction)
+ * replaced by its state after its last change. Every order counts once, however
+ * its commit lined up with the scan.
+ *
+ * Only changes made through this instance are seen. With several instances, or
+ * after orders are changed directly in MySQL (sp_place_order), call rebuild.
+ */
+@Service
+@DependsOn("entityManagerFactory") // ddl-auto may still be creating orders
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+
+    private static final String REBUILD_SQL =
+            "SELECT placed_at, status, subtotal_cents, discount_cents, tax_cents, total_cents FROM orders";
+    private static final String STATES_SQL =
+            "SELECT order_id, placed_at, status, subtotal_cents, discount_cents, tax_cents, total_cents FROM orders " +
+                    "WHERE order_id IN (";
+    // order ids per STATES_SQL query
+    private static final int STATES_CHUNK = 1_000;
+
+    // mirrors ENUM('placed','fulfilled','cancelled') on orders.status
+    private static final List<String> STATUSES = List.of("placed", "fulfilled", "cancelled");
+
+    // orders, subtotal, discount, tax, total
+    private static final int FIELDS = 5;
+    private static final int ROW = STATUSES.size() * FIELDS;
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final JdbcTemplate jdbcTemplate;
+    // the scan and the re-read of orders that changed during it see one snapshot
+    private final TransactionTemplate scanTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private Series hours = new Series();
+    private Series days = new Series();
+    // committed changes waiting for a running rebuild; null when none is running
+    private List<Changes> pending;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public SalesRollupServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // not read-only: that would send the scan to a replica, which may lag changes already reported here
+        this.scanTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.scanTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PostConstruct
+    void start() {
+        // hold back commits from here on, even if the thread below is slow to start
+        beginRebuild();
+        Thread.ofPlatform().name("sales-rollup-rebuild").daemon().start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Sales rollup rebuild failed; reports stay unavailable until POST /api/orders/sales/rebuild", e);
+            }
+        });
+    }
+
+    @Override
+    public void orderPlaced(Order order) {
+        Changes changes = new Changes(1);
+        changes.add(order.getId());
+        changes.after(hourOf(order.getPlacedAt()), statusIndex(order.getStatus()), order.getSubtotalCents(),
+                order.getDiscountCents(), order.getTaxCents(), order.getTotalCents());
+        applyAfterCommit(changes);
+    }
+
+    @Override
+    public void statusChanged(Order order, String fromStatus) {
+        int from = statusIndex(fromStatus);
+        int to = statusIndex(order.getStatus());
+        if (from == to) {
+            return;
+        }
+        long hour = hourOf(order.getPlacedAt());
+        Changes changes = new Changes(1);
+        changes.add(order.getId());
+        changes.before(hour, from, order.getSubtotalCents(), order.getDiscountCents(),
+                order.getTaxCents(), order.getTotalCents());
+        changes.after(hour, to, order.getSubtotalCents(), order.getDiscountCents(),
+                order.getTaxCents(), order.getTotalCents());
+        applyAfterCommit(changes);
+    }
+
+    /**
+     * Reads the moved orders' amounts back by id; the caller holds their row locks.
+     */
+    @Override
+    public void statusesChanged(List<Integer> orderIds, String fromStatus, String toStatus) {
+        int from = statusIndex(fromStatus);
+        int to = statusIndex(toStatus);
+        if (orderIds.isEmpty() || from == to) {
+            return;
+        }
+        Changes changes = new Changes(orderIds.size());
+        jdbcTemplate.query(
+                "SELECT order_id, placed_at, subtotal_cents, discount_cents, tax_cents, total_cents FROM orders " +
+                        "WHERE order_id IN (" + placeholders(orderIds.size()) + ")",
+                rs -> {
+                    long hour = hourOf(rs.getObject(2, LocalDateTime.class));
+                    long subtotal = rs.getLong(3);
+                    long discount = rs.getLong(4);
+                    long tax = rs.getLong(5);
+                    long total = rs.getLong(6);
+                    changes.add(rs.getInt(1));
+                    changes.before(hour, from, subtotal, discount, tax, total);
+                    changes.after(hour, to, subtotal, discount, tax, total);
+                },
+                orderIds.toArray());
+        applyAfterCommit(changes);
+    }
+
+    /**
+     * Must be called before the new tax/total are written, so the old ones can be
+     * read for the difference.
+     */
+    @Override
+    public void totalsChanging(int count, int[] orderIds, int[] taxCents, int[] totalCents) {
+        if (count == 0) {
+            return;
+        }
+        Map<Integer, Integer> index = new HashMap<>(count * 2);
+        Object[] args = new Object[count];
+        for (int i = 0; i < count; i++) {
+            index.put(orderIds[i], i);
+            args[i] = orderIds[i];
+        }
+        Changes changes = new Changes(count);
+        jdbcTemplate.query(
+                "SELECT order_id, placed_at, status, subtotal_cents, discount_cents, tax_cents, total_cents FROM orders " +
+                        "WHERE order_id IN (" + placeholders(count) + ")",
+                rs -> {
+                    int i = index.get(rs.getInt(1));
+                    long hour = hourOf(rs.getObject(2, LocalDateTime.class));
+                    int status = statusIndex(rs.getString(3));
+                    changes.add(rs.getInt(1));
+                    changes.before(hour, status, rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7));
+                    changes.after(hour, status, rs.getLong(4), rs.getLong(5), taxCents[i], totalCents[i]);
+                },
+                args);
+        applyAfterCommit(changes);
+    }
+
+    @Override
+    public void orderRemoved(Order order) {
+        Changes changes = new Changes(1);
+        changes.add(order.getId());
+        changes.before(hourOf(order.getPlacedAt()), statusIndex(order.getStatus()), order.getSubtotalCents(),
+                order.getDiscountCents(), order.getTaxCents(), order.getTotalCents());
+        applyAfterCommit(changes);
+    }
+
+    @Override
+    public SalesReport report(LocalDateTime from, LocalDateTime to, Granularity granularity, String status) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        int only = status == null ? -1 : statusIndex(status);
+        if (!ready) {
+            throw new IllegalStateException("Sales rollups are still loading");
+        }
+        boolean byHour = granularity == Granularity.HOUR;
+        long first = byHour ? hourOf(from) : from.toLocalDate().toEpochDay();
+        LocalDateTime last = to.minusNanos(1);
+        long end = (byHour ? hourOf(last) : last.toLocalDate().toEpochDay()) + 1;
+
+        List<SalesReport.Row> rows = new ArrayList<>();
+        long[] bucket = new long[FIELDS];
+        long[] sum = new long[FIELDS];
+        lock.readLock().lock();
+        try {
+            Series series = byHour ? hours : days;
+            for (Map.Entry<Long, long[]> entry : series.pages.subMap(first >> PAGE_BITS, true, (end - 1) >> PAGE_BITS, true).entrySet()) {
+                long pageStart = entry.getKey() << PAGE_BITS;
+                long[] page = entry.getValue();
+                int lo = (int) Math.max(0, first - pageStart);
+                int hi = (int) Math.min(PAGE_SIZE, end - pageStart);
+                for (int b = lo; b < hi; b++) {
+                    Arrays.fill(bucket, 0);
+                    boolean any = false;
+                    for (int s = 0; s < STATUSES.size(); s++) {
+                        if (only >= 0 && s != only) {
+                            continue;
+                        }
+                        int at = b * ROW + s * FIELDS;
+                        for (int f = 0; f < FIELDS; f++) {
+                            bucket[f] += page[at + f];
+                            any |= page[at + f] != 0;
+                        }
+                    }
+                    if (any) {
+                        long start = pageStart + b;
+                        rows.add(row(byHour ? LocalDateTime.ofEpochSecond(start * 3600, 0, ZoneOffset.UTC)
+                                : LocalDate.ofEpochDay(start).atStartOfDay(), bucket));
+                        for (int f = 0; f < FIELDS; f++) {
+                            sum[f] += bucket[f];
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new SalesReport(granularity.name().toLowerCase(), status, rows, row(null, sum));
+    }
+
+    /**
+     * Recomputes both granularities from orders in one pass. Orders changed
+     * meanwhile are then set to their state after their last change.
+     */
+    @Override
+    public synchronized long rebuild() {
+        beginRebuild();
+        return scan();
+    }
+
+    private void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long scan() {
+        long started = System.nanoTime();
+        Series newHours = new Series();
+        Series newDays = new Series();
+        long count;
+        try {
+            count = scanTransaction.execute(status -> {
+                long rows = scanInto(newHours, newDays);
+                // state as the scan saw it (no row: orders = 0), for each order changed since the rebuild began
+                Map<Integer, long[]> seen = new HashMap<>();
+                while (true) {
+                    List<Integer> unseen;
+                    lock.writeLock().lock();
+                    try {
+                        unseen = changedOrders(seen);
+                        if (unseen.isEmpty()) {
+                            // nothing can be reported between the last re-read and the swap
+                            swap(newHours, newDays, seen);
+                            return rows;
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    readStates(unseen, seen);
+                }
+            });
+        } catch (RuntimeException e) {
+            // keep what we had, plus whatever committed during the attempt
+            finishRebuild();
+            throw e;
+        }
+        log.info("Sales rollups rebuilt from {} orders in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    private long scanInto(Series newHours, Series newDays) {
+        long[] fields = new long[FIELDS];
+        long[] count = {0};
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(REBUILD_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    // Connector/J only streams row by row with this fetch size; otherwise it buffers the whole table
+                    if ("MySQL".equals(con.getMetaData().getDatabaseProductName())) {
+                        ps.setFetchSize(Integer.MIN_VALUE);
+                    }
+                    return ps;
+                },
+                rs -> {
+                    long hour = hourOf(rs.getObject(1, LocalDateTime.class));
+                    int status = statusIndex(rs.getString(2));
+                    fields[0] = 1;
+                    fields[1] = rs.getLong(3);
+                    fields[2] = rs.getLong(4);
+                    fields[3] = rs.getLong(5);
+                    fields[4] = rs.getLong(6);
+                    newHours.add(hour, status, fields, 0, 1);
+                    newDays.add(Math.floorDiv(hour, 24), status, fields, 0, 1);
+                    count[0]++;
+                });
+        return count[0];
+    }
+
+    // caller holds the write lock
+    private List<Integer> changedOrders(Map<Integer, long[]> seen) {
+        List<Integer> unseen = new ArrayList<>();
+        for (Changes changes : pending) {
+            for (int at = 0; at < changes.size; at += Changes.WIDTH) {
+                int orderId = (int) changes.rows[at];
+                if (!seen.containsKey(orderId)) {
+                    seen.put(orderId, null);
+                    unseen.add(orderId);
+                }
+            }
+        }
+        return unseen;
+    }
+
+    private void readStates(List<Integer> orderIds, Map<Integer, long[]> seen) {
+        for (int start = 0; start < orderIds.size(); start += STATES_CHUNK) {
+            List<Integer> chunk = orderIds.subList(start, Math.min(start + STATES_CHUNK, orderIds.size()));
+            for (Integer orderId : chunk) {
+                seen.put(orderId, new long[Changes.STATE]);
+            }
+            jdbcTemplate.query(STATES_SQL + placeholders(chunk.size()) + ")",
+                    rs -> {
+                        long[] state = seen.get(rs.getInt(1));
+                        state[0] = hourOf(rs.getObject(2, LocalDateTime.class));
+                        state[1] = statusIndex(rs.getString(3));
+                        state[2] = 1;
+                        for (int f = 1; f < FIELDS; f++) {
+                            state[2 + f] = rs.getLong(3 + f);
+                        }
+                    },
+                    chunk.toArray());
+        }
+    }
+
+    // caller holds the write lock; replaces each changed order's scanned state with its state after its last change
+    private void swap(Series newHours, Series newDays, Map<Integer, long[]> seen) {
+        Map<Integer, Integer> lastAt = new LinkedHashMap<>();
+        Map<Integer, Changes> lastIn = new HashMap<>();
+        for (Changes changes : pending) {
+            for (int at = 0; at < changes.size; at += Changes.WIDTH) {
+                int orderId = (int) changes.rows[at];
+                lastAt.put(orderId, at);
+                lastIn.put(orderId, changes);
+            }
+        }
+        hours = newHours;
+        days = newDays;
+        for (Map.Entry<Integer, Integer> e : lastAt.entrySet()) {
+            addState(seen.get(e.getKey()), 0, -1);
+            addState(lastIn.get(e.getKey()).rows, e.getValue() + 1 + Changes.STATE, 1);
+        }
+        pending = null;
+        ready = true;
+    }
+
+    // A failed scan: the old pages stay and the held-back changes go on top as usual
+    private void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending == null) {
+                return;   // already swapped in; only the commit of the read-only work failed
+            }
+            for (Changes changes : pending) {
+                addAll(changes);
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyAfterCommit(Changes changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(changes);
+            }
+        });
+    }
+
+    private void apply(Changes changes) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(changes);
+            } else {
+                addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void addAll(Changes changes) {
+        for (int at = 0; at < changes.size; at += Changes.WIDTH) {
+            addState(changes.rows, at + 1, -1);
+            addState(changes.rows, at + 1 + Changes.STATE, 1);
+        }
+    }
+
+    // caller holds the write lock; adds (sign 1) or takes away (-1) one order's state
+    private void addState(long[] state, int at, int sign) {
+        if (state[at + 2] == 0) {
+            return;   // no row
+        }
+        long hour = state[at];
+        int status = (int) state[at + 1];
+        hours.add(hour, status, state, at + 2, sign);
+        days.add(Math.floorDiv(hour, 24), status, state, at + 2, sign);
+    }
+
+    private static SalesReport.Row row(LocalDateTime start, long[] fields) {
+        return new SalesReport.Row(start, fields[0], fields[1], fields[2], fields[3], fields[4]);
+    }
+
+    // hours since 1970-01-01T00:00 in placed_at's own (server local) time, so days line up with DATE(placed_at)
+    private static long hourOf(LocalDateTime placedAt) {
+        return Math.floorDiv(placedAt.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static int statusIndex(String status) {
+        int index = STATUSES.indexOf(status);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+        return index;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    // Pages of one granularity; see the class comment for the layout
+    private static final class Series {
+
+        final TreeMap<Long, long[]> pages = new TreeMap<>();
+
+        void add(long bucket, int status, long[] fields, int offset, int sign) {
+            long[] page = pages.computeIfAbsent(bucket >> PAGE_BITS, p -> new long[PAGE_SIZE * ROW]);
+            int at = (int) (bucket & (PAGE_SIZE - 1)) * ROW + status * FIELDS;
+            for (int f = 0; f < FIELDS; f++) {
+                page[at + f] += sign * fields[offset + f];
+            }
+        }
+    }
+
+    /**
+     * Orders changed by one transaction: per order its id, then its state before and
+     * after, each as (hour, status, orders, subtotal, discount, tax, total) with
+     * orders = 0 when there is no row (before an insert, after a delete).
+     */
+    private static final class Changes {
+
+        static final int STATE = 2 + FIELDS;
+        static final int WIDTH = 1 + 2 * STATE;
+
+        long[] rows;
+        int size;
+
+        Changes(int expected) {
+            rows = new long[expected * WIDTH];
+        }
+
+        // starts the next order, with no row before or after until set
+        void add(int orderId) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(WIDTH, rows.length * 2));
+            }
+            rows[size] = orderId;
+            size += WIDTH;
+        }
+
+        void before(long hour, int status, long subtotal, long discount, long tax, long total) {
+            set(size - WIDTH + 1, hour, status, subtotal, discount, tax, total);
+        }
+
+        void after(long hour, int status, long subtotal, long discount, long tax, long total) {
+            set(size - WIDTH + 1 + STATE, hour, status, subtotal, discount, tax, total);
+        }
+
+        private void set(int at, long hour, int status, long subtotal, long discount, long tax, long total) {
+            rows[at] = hour;
+            rows[at + 1] = status;
+            rows[at + 2] = 1;
+            rows[at + 3] = subtotal;
+            rows[at + 4] = discount;
+            rows[at + 5] = tax;
+            rows[at + 6] = total;
+        }
+    }
+}
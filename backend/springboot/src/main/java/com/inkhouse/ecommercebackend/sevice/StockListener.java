@@ -0,0 +1,29 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Implemented by in-memory views that show stock: indexes that show whether
+ * something can be bought, and the catalog that shows how many are left.
+ *
+ * In both calls, available reads the SKU's current available quantity. Read it while
+ * handling the call rather than trusting an earlier value: calls for the same SKU
+ * can arrive out of order, but the last one always sees the latest state.
+ */
+public interface StockListener {
+
+    /**
+     * Called when a SKU may have just sold out or come back (a reservation took the
+     * last units, a release returned some, an admin set the stock), not on every
+     * reservation.
+     */
+    default void onStockChanged(InventoryService.Sku sku, IntSupplier available) {
+    }
+
+    /**
+     * Called after every change to a SKU's available quantity, on the thread that
+     * made it (often a checkout), so it must only note the change and return.
+     */
+    default void onStockLevel(InventoryService.Sku sku, IntSupplier available) {
+    }
+}
@@ -3,6 +3,7 @@ package com.inkhouse.ecommercebackend.sevice;
 import com.inkhouse.ecommercebackend.model.User;
 import com.inkhouse.ecommercebackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,19 +13,27 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Override
     public User saveUser(User user) {
+        // always hash what the client sent, even if it looks like "{noop}..." or "{bcrypt}...";
+        // otherwise a caller could pick its own stored format, plaintext included
+        if (user.getPassword() != null) {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        }
         return userRepository.save(user);
     }
 
     @Override
     public User getUserByEmail(String email) {
-        return null;
+        return userRepository.findByEmail(email).orElse(null);
     }
 
     @Override
     public User getUserById(int id) {
-        return null;
+        return userRepository.findById(id).orElse(null);
     }
 
     @Override
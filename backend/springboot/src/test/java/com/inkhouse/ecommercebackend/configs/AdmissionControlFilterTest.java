@@ -0,0 +1,152 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionControlFilter filter(double ratePerSecond, int burst, int maxLimit) {
+        return filter(true, ratePerSecond, burst, maxLimit);
+    }
+
+    private AdmissionControlFilter filter(boolean clientLimits, double ratePerSecond, int burst, int maxLimit) {
+        Map<AdmissionControlFilter.Group, AdmissionControlFilter.GroupLimits> limits =
+                new EnumMap<>(AdmissionControlFilter.Group.class);
+        for (AdmissionControlFilter.Group group : AdmissionControlFilter.Group.values()) {
+            limits.put(group, new AdmissionControlFilter.GroupLimits(1, maxLimit, 60_000));
+        }
+        return new AdmissionControlFilter(clientLimits, ratePerSecond, burst, 1000, limits, registry);
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    @Test
+    void emptyBucketGets429WithRetryAfter() throws Exception {
+        AdmissionControlFilter filter = filter(0.5, 2, 100);
+        FilterChain ok = (req, res) -> {
+        };
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(get("/api/products"), response, ok);
+            assertEquals(200, response.getStatus());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get("/api/products"), response, ok);
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+
+        // another client has its own bucket
+        MockHttpServletRequest other = get("/api/products");
+        other.setRemoteAddr("10.0.0.2");
+        response = new MockHttpServletResponse();
+        filter.doFilter(other, response, ok);
+        assertEquals(200, response.getStatus());
+        assertEquals(1.0, registry.get("admission.rejected").tags("group", "catalog", "reason", "rate").counter().count());
+    }
+
+    @Test
+    void clientLimitsAreOffUnlessEnabled() throws Exception {
+        AdmissionControlFilter filter = filter(false, 0.5, 1, 100);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(get("/api/products"), response, (req, res) -> {
+            });
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    @Test
+    void groupAtItsLimitGets503WithoutQueueing() throws Exception {
+        AdmissionControlFilter filter = filter(1000, 1000, 1);
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletResponse otherGroup = new MockHttpServletResponse();
+        // while one catalog request is running, a second one is shed; an order request is not
+        filter.doFilter(get("/api/products/1"), new MockHttpServletResponse(), (req, res) -> {
+            filter.doFilter(get("/api/products/2"), inner, (r, s) -> {
+            });
+            filter.doFilter(get("/api/orders/1"), otherGroup, (r, s) -> {
+            });
+        });
+        assertEquals(503, inner.getStatus());
+        assertEquals("1", inner.getHeader("Retry-After"));
+        assertEquals(200, otherGroup.getStatus());
+    }
+
+    @Test
+    void limitBacksOffOnServerErrors() throws Exception {
+        AdmissionControlFilter filter = filter(1000, 1000, 50);
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(get("/api/orders"), new MockHttpServletResponse(), (req, res) ->
+                    ((MockHttpServletResponse) res).setStatus(500));
+        }
+        // each of these was admitted after the previous cut, so each one cuts
+        assertEquals(17, filter.limit(AdmissionControlFilter.Group.ORDERS)); // 50 * 0.9^10
+        assertEquals(50, filter.limit(AdmissionControlFilter.Group.CATALOG));
+    }
+
+    @Test
+    void aBurstOfSlowResponsesBacksOffOnce() {
+        AdmissionControlFilter.AdaptiveLimit limit = new AdmissionControlFilter.AdaptiveLimit(1, 50, 1_000);
+        long admitted = System.nanoTime() + 1;
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+        // ten requests admitted together all come back slow: one congestion signal, not ten
+        for (int i = 0; i < 10; i++) {
+            limit.release(admitted, admitted + 5_000 + i, false);
+        }
+        assertEquals(45, limit.limit());
+
+        // a request admitted after that cut can cut again
+        limit.tryAcquire();
+        limit.release(admitted + 20_000, admitted + 30_000, true);
+        assertEquals(40, limit.limit());
+    }
+
+    @Test
+    void asyncRequestsHoldTheirPermitUntilComplete() throws Exception {
+        AdmissionControlFilter filter = filter(1000, 1000, 1);
+        MockHttpServletRequest export = get("/api/orders/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // the handler returned but is still streaming on another thread
+        assertEquals(1, filter.inFlight(AdmissionControlFilter.Group.ADMIN));
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(get("/api/orders/summary"), shed, (req, res) -> {
+        });
+        assertEquals(503, shed.getStatus());
+
+        export.getAsyncContext().complete();
+        assertEquals(0, filter.inFlight(AdmissionControlFilter.Group.ADMIN));
+    }
+
+    @Test
+    void classifiesEndpointGroups() {
+        assertEquals(AdmissionControlFilter.Group.CATALOG, AdmissionControlFilter.classify("GET", "/api/products/search"));
+        assertEquals(AdmissionControlFilter.Group.ADMIN, AdmissionControlFilter.classify("POST", "/api/products/import"));
+        assertEquals(AdmissionControlFilter.Group.ADMIN, AdmissionControlFilter.classify("GET", "/api/orders/summary"));
+        assertEquals(AdmissionControlFilter.Group.ADMIN, AdmissionControlFilter.classify("POST", "/api/orders/sales/rebuild"));
+        assertEquals(AdmissionControlFilter.Group.ORDERS, AdmissionControlFilter.classify("POST", "/api/orders/checkout"));
+        assertEquals(AdmissionControlFilter.Group.ORDERS, AdmissionControlFilter.classify("PUT", "/api/carts/1/items"));
+        assertEquals(AdmissionControlFilter.Group.ADMIN, AdmissionControlFilter.classify("POST", "/api/images"));
+        assertNull(AdmissionControlFilter.classify("GET", "/api/images/ab.png"));
+        assertNull(AdmissionControlFilter.classify("POST", "/api/auth/login"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.inkhouse.ecommercebackend.configs;
+
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.repository.ProductRepository;
+import com.inkhouse.ecommercebackend.sevice.CatalogCache;
+import com.inkhouse.ecommercebackend.sevice.InventoryService;
+import com.inkhouse.ecommercebackend.sevice.ProductFilterIndex;
+import com.inkhouse.ecommercebackend.sevice.ProductSearchIndex;
+import com.inkhouse.ecommercebackend.sevice.ProductService;
+import com.inkhouse.ecommercebackend.sevice.ProductServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.NameMatchTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica; each
+ * answers "which database am I" from its own node table.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicReference<Object> caller = new AtomicReference<>("alice");
+
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                database("primary"), List.of(database("replica")), 200, caller::get));
+        jdbc = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String node(TransactionTemplate template) {
+        return template.execute(tx -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        assertEquals("replica", node(readOnly));
+        assertEquals("primary", node(readWrite));
+        // no transaction at all: primary
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void pinsWriterToPrimaryUntilStickinessExpires() throws InterruptedException {
+        readWrite.executeWithoutResult(tx -> jdbc.update("UPDATE node SET name = name"));
+
+        assertEquals("primary", node(readOnly));
+        caller.set("bob");
+        assertEquals("replica", node(readOnly));
+
+        caller.set("alice");
+        Thread.sleep(250);
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void rolledBackWritesDoNotPin() {
+        readWrite.executeWithoutResult(tx -> {
+            jdbc.update("UPDATE node SET name = name");
+            tx.setRollbackOnly();
+        });
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void productWritesNeverTouchTheReplica() {
+        // the repository records which database each call would have run against
+        List<String> nodes = new ArrayList<>();
+        ProductRepository repository = mock(ProductRepository.class);
+        Product stored = new Product();
+        stored.setId(1);
+        stored.setVersion(0L);
+        when(repository.findById(1)).thenAnswer(call -> {
+            nodes.add(jdbc.queryForObject("SELECT name FROM node", String.class));
+            return Optional.of(stored);
+        });
+        when(repository.saveAndFlush(any(Product.class))).thenAnswer(call -> {
+            nodes.add(jdbc.queryForObject("SELECT name FROM node", String.class));
+            return call.getArgument(0);
+        });
+        doAnswer(call -> nodes.add(jdbc.queryForObject("SELECT name FROM node", String.class)))
+                .when(repository).delete(any(Product.class));
+
+        // like SimpleJpaRepository: finders in their own read-only transaction unless one is already running
+        NameMatchTransactionAttributeSource repositoryTransactions = new NameMatchTransactionAttributeSource();
+        DefaultTransactionAttribute readOnlyFinder = new DefaultTransactionAttribute();
+        readOnlyFinder.setReadOnly(true);
+        repositoryTransactions.addTransactionalMethod("find*", readOnlyFinder);
+        repositoryTransactions.addTransactionalMethod("*", new DefaultTransactionAttribute());
+        ProxyFactory repositoryProxy = new ProxyFactory(repository);
+        repositoryProxy.addInterface(ProductRepository.class);
+        repositoryProxy.addAdvice(new TransactionInterceptor(transactionManager, repositoryTransactions));
+
+        ProxyFactory proxy = new ProxyFactory(new ProductServiceImpl((ProductRepository) repositoryProxy.getProxy(), mock(CatalogCache.class),
+                mock(ProductSearchIndex.class), mock(ProductFilterIndex.class), mock(InventoryService.class)));
+        proxy.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        ProductService products = (ProductService) proxy.getProxy();
+
+        caller.set(null);
+        products.createProduct(new Product());
+        products.updateProduct(1, new Product());
+        products.deleteProduct(1);
+        assertEquals(List.of("primary", "primary", "primary", "primary", "primary"), nodes);
+
+        // reads still go to the replica
+        nodes.clear();
+        products.getProductById(1);
+        assertEquals(List.of("replica"), nodes);
+    }
+}
@@ -0,0 +1,77 @@
+package com.inkhouse.ecommercebackend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadQuotaTest {
+
+    @Test
+    void refusesACallerOverItsQuotaUntilTheWindowEnds() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        UploadQuota quota = new UploadQuota(100, 60_000, now::get);
+
+        UploadQuota.Grant first = quota.reserve(7, 60);
+        assertTrue(first.granted());
+        // held while the first upload runs
+        assertEquals(60, quota.reserve(7, 50).retryAfterSeconds());
+        // it stored less than it declared, which frees the rest
+        quota.settle(7, first, 40);
+        UploadQuota.Grant second = quota.reserve(7, 50);
+        assertTrue(second.granted());
+        assertFalse(quota.reserve(7, 20).granted());
+
+        // other callers have their own allowance
+        assertTrue(quota.reserve(8, 100).granted());
+
+        now.addAndGet(45_000);
+        assertEquals(15, quota.reserve(7, 20).retryAfterSeconds());
+        now.addAndGet(15_000);
+        assertTrue(quota.reserve(7, 100).granted());
+    }
+
+    @Test
+    void failedUploadIsRefunded() {
+        UploadQuota quota = new UploadQuota(100, 60_000, () -> 0);
+
+        UploadQuota.Grant grant = quota.reserve(7, 100);
+        assertFalse(quota.reserve(7, 1).granted());
+        quota.settle(7, grant, 0);
+        assertTrue(quota.reserve(7, 100).granted());
+    }
+
+    @Test
+    void concurrentUploadsCantAllSlipUnderTheLimit() throws InterruptedException {
+        UploadQuota quota = new UploadQuota(1_000, 60_000, () -> 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 100; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    if (quota.reserve(7, 100).granted()) {
+                        granted.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, granted.get());
+    }
+}
@@ -0,0 +1,141 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CartItemRequest;
+import com.inkhouse.ecommercebackend.dto.CartLine;
+import com.inkhouse.ecommercebackend.model.Cart;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import com.inkhouse.ecommercebackend.repository.CartItemRepository;
+import com.inkhouse.ecommercebackend.repository.CartRepository;
+import com.inkhouse.ecommercebackend.repository.CustomDesignRepository;
+import com.inkhouse.ecommercebackend.repository.ProductVariantRepository;
+import com.inkhouse.ecommercebackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind of carts to an in-memory H2 cart_items table; user 7 owns cart 3
+ * and variants 1 and 2 cost 1500 and 2500.
+ */
+class CartServiceImplTest {
+
+    private static final int USER = 7;
+
+    private JdbcTemplate jdbc;
+    private CartServiceImpl carts;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:carts;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS cart_items");
+        createItemsTable();
+
+        Cart cart = new Cart();
+        cart.setId(3);
+        cart.setUserId(USER);
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findByUserId(USER)).thenReturn(Optional.of(cart));
+        ProductVariantRepository variantRepository = mock(ProductVariantRepository.class);
+        when(variantRepository.findById(1)).thenReturn(Optional.of(variant(1, 1500)));
+        when(variantRepository.findById(2)).thenReturn(Optional.of(variant(2, 2500)));
+
+        carts = new CartServiceImpl(cartRepository, mock(CartItemRepository.class), mock(UserRepository.class),
+                variantRepository, mock(CustomDesignRepository.class), mock(CatalogCache.class), jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 60_000);
+    }
+
+    private void createItemsTable() {
+        jdbc.execute("CREATE TABLE cart_items (cart_id INT NOT NULL, product_id INT, variant_id INT, design_id INT, " +
+                "qty INT NOT NULL, unit_price_cents_snapshot INT NOT NULL)");
+    }
+
+    private static ProductVariant variant(int id, int priceCents) {
+        ProductVariant variant = new ProductVariant();
+        variant.setId(id);
+        variant.setPriceCents(priceCents);
+        return variant;
+    }
+
+    private static CartItemRequest variantLine(int variantId, int qty) {
+        return new CartItemRequest(null, variantId, null, qty);
+    }
+
+    // What checkout would read
+    private List<CartLine> rows() {
+        return jdbc.query("SELECT variant_id, qty, unit_price_cents_snapshot FROM cart_items ORDER BY variant_id",
+                (rs, i) -> new CartLine(null, rs.getInt(1), null, rs.getInt(2), rs.getInt(3)));
+    }
+
+    @Test
+    void editsBetweenFlushesCostOneRewrite() {
+        carts.addItem(USER, variantLine(1, 1));
+        carts.addItem(USER, variantLine(1, 2));
+        carts.setQuantity(USER, variantLine(2, 4));
+        assertEquals(List.of(), rows());
+
+        assertEquals(1, carts.flush());
+        assertEquals(List.of(new CartLine(null, 1, null, 3, 1500), new CartLine(null, 2, null, 4, 2500)), rows());
+        assertEquals(0, carts.flush());
+    }
+
+    @Test
+    void flushForCheckoutThrowsButTheSweepRetries() {
+        carts.addItem(USER, variantLine(1, 1));
+        jdbc.execute("DROP TABLE cart_items");
+
+        // checkout must not go on to read cart_items that are missing this edit
+        assertThrows(DataAccessException.class, () -> carts.flush(USER));
+        assertEquals(0, carts.flush());
+
+        createItemsTable();
+        assertEquals(1, carts.flush());
+        assertEquals(List.of(new CartLine(null, 1, null, 1, 1500)), rows());
+    }
+
+    @Test
+    void editsMadeWhileCheckoutRunsAreKept() {
+        carts.addItem(USER, variantLine(1, 2));
+        carts.flush(USER);
+        List<CartLine> ordered = rows();
+
+        // while the order is being written: another item, and cart_items emptied by checkout
+        carts.addItem(USER, variantLine(2, 1));
+        jdbc.update("DELETE FROM cart_items WHERE cart_id = 3");
+        carts.removeCheckedOut(USER, ordered);
+
+        assertEquals(List.of(new CartLine(null, 2, null, 1, 2500)), carts.getCart(USER).items());
+        carts.flush();
+        assertEquals(List.of(new CartLine(null, 2, null, 1, 2500)), rows());
+    }
+
+    @Test
+    void aLineChangedAfterCheckoutReadItStays() {
+        carts.addItem(USER, variantLine(1, 2));
+        carts.flush(USER);
+        List<CartLine> ordered = rows();
+
+        carts.setQuantity(USER, variantLine(1, 5));
+        jdbc.update("DELETE FROM cart_items WHERE cart_id = 3");
+        carts.removeCheckedOut(USER, ordered);
+
+        assertEquals(List.of(new CartLine(null, 1, null, 5, 1500)), carts.getCart(USER).items());
+        // a scheduled flush that rewrote the old lines after checkout's delete is undone too
+        jdbc.update("INSERT INTO cart_items VALUES (3, NULL, 1, NULL, 2, 1500)");
+        carts.flush();
+        assertEquals(List.of(new CartLine(null, 1, null, 5, 1500)), rows());
+    }
+}
@@ -0,0 +1,94 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogCacheTest {
+
+    private static Product product(int id, int qty) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Poster " + id);
+        product.setBasePriceCents(1000 + id);
+        product.setQtyAvailable(qty);
+        product.setIsActive(true);
+        return product;
+    }
+
+    private static CatalogSnapshot.Entry entry(int id, String title) {
+        ProductView view = new ProductView(id, title, null, null, 1000, 1, true, 0L, null, null);
+        return new CatalogSnapshot.Entry(view, ("{\"id\":" + id + ",\"t\":\"" + title + "\"}").getBytes(StandardCharsets.UTF_8),
+                ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stockChangesReachTheCachedJsonAndTheEtag() {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll()).thenReturn(List.of(product(1, 10), product(2, 5)));
+        CatalogCache cache = new CatalogCache(repository, new ObjectMapper().findAndRegisterModules(), List.of());
+        CatalogSnapshot before = cache.current();
+
+        // a checkout took 3 of product 1; variants don't show in the product list
+        cache.onStockLevel(InventoryService.Sku.product(1), () -> 7);
+        cache.onStockLevel(InventoryService.Sku.variant(1), () -> 0);
+        CatalogSnapshot after = cache.current();
+
+        assertEquals(7, after.get(1).view().qtyAvailable());
+        assertEquals(5, after.get(2).view().qtyAvailable());
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(new String(CatalogSnapshot.of(List.of(after.get(1), after.get(2)), 0).allJson(), StandardCharsets.UTF_8),
+                new String(after.allJson(), StandardCharsets.UTF_8));
+        // nothing moved since, so the same snapshot is served
+        assertEquals(after.etag(), cache.current().etag());
+    }
+
+    @Test
+    void splicedListJsonMatchesAFreshJoin() {
+        Random random = new Random(42);
+        TreeMap<Integer, CatalogSnapshot.Entry> expected = new TreeMap<>();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(), 0);
+
+        for (int step = 0; step < 500; step++) {
+            int id = random.nextInt(20);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                CatalogSnapshot.Entry entry = entry(id, "v" + step);
+                expected.put(id, entry);
+                snapshot = snapshot.with(entry);
+            } else if (op == 1) {
+                expected.remove(id);
+                snapshot = snapshot.without(id);
+            } else if (!expected.isEmpty()) {
+                List<CatalogSnapshot.Entry> replacements = new ArrayList<>();
+                for (Integer existing : expected.keySet()) {
+                    if (random.nextBoolean()) {
+                        replacements.add(entry(existing, "r" + step + "-" + "x".repeat(random.nextInt(4))));
+                    }
+                }
+                replacements.forEach(e -> expected.put(e.view().id(), e));
+                snapshot = snapshot.with(replacements);
+            }
+
+            CatalogSnapshot fresh = CatalogSnapshot.of(List.copyOf(expected.values()), 0);
+            assertEquals(new String(fresh.allJson(), StandardCharsets.UTF_8),
+                    new String(snapshot.allJson(), StandardCharsets.UTF_8));
+            assertEquals(new String(fresh.allSummaryJson(), StandardCharsets.UTF_8),
+                    new String(snapshot.allSummaryJson(), StandardCharsets.UTF_8));
+            assertEquals(fresh.views(), snapshot.views());
+        }
+    }
+}
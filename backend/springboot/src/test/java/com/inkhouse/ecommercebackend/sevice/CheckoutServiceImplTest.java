@@ -0,0 +1,185 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CheckoutResult;
+import com.inkhouse.ecommercebackend.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checkout against an embedded H2 with the schema generated from the entities.
+ * Tests run outside a transaction, like a request: stock is reserved on its own
+ * and the order is written in a transaction of its own.
+ *
+ * Product 1 costs 20.00 with 5 in stock; its variant 7 costs 30.00 with 2 in
+ * stock. Users 1 and 2 each have a cart with two of product 1 and one of variant
+ * 7 (70.00); user 3 has a cart but no account.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"})
+@Import({CheckoutServiceImpl.class, InventoryServiceImpl.class, OrderSummaryServiceImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CheckoutServiceImplTest {
+
+    @Autowired
+    private CheckoutServiceImpl checkout;
+
+    @Autowired
+    private InventoryServiceImpl inventory;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private CartService cartService;
+
+    @MockitoBean
+    private OrderOutboxService orderOutboxService;
+
+    @MockitoBean
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        for (String table : new String[]{"order_summaries", "order_items", "orders", "cart_items", "carts",
+                "discount_codes", "product_variants", "products", "users"}) {
+            jdbc.update("DELETE FROM " + table);
+        }
+        jdbc.update("INSERT INTO users (user_id, email, full_name, password) VALUES (1, 'a@example.com', 'A', 'x')");
+        jdbc.update("INSERT INTO users (user_id, email, full_name, password) VALUES (2, 'b@example.com', 'B', 'x')");
+        jdbc.update("INSERT INTO products (product_id, title, base_price_cents, qty_available, is_active, version) " +
+                "VALUES (1, 'Poster', 2000, 5, TRUE, 0)");
+        jdbc.update("INSERT INTO product_variants (variant_id, product_id, size_label, finish_label, price_cents, " +
+                "qty_available, is_active, version) VALUES (7, 1, 'A2', 'Matte', 3000, 2, TRUE, 0)");
+        jdbc.update("INSERT INTO discount_codes (code, type, value_basis, max_uses, used_count, is_active) " +
+                "VALUES ('TENOFF', 'percent', 1000, NULL, 0, TRUE)");
+        jdbc.update("INSERT INTO discount_codes (code, type, value_basis, max_uses, used_count, is_active) " +
+                "VALUES ('FIVE', 'fixed', 500, 10, 0, TRUE)");
+        jdbc.update("INSERT INTO discount_codes (code, type, value_basis, max_uses, used_count, is_active) " +
+                "VALUES ('GONE', 'fixed', 500, 1, 1, TRUE)");
+        for (int user = 1; user <= 3; user++) {
+            jdbc.update("INSERT INTO carts (cart_id, user_id) VALUES (?, ?)", user, user);
+            jdbc.update("INSERT INTO cart_items (cart_id, product_id, qty, unit_price_cents_snapshot) VALUES (?, 1, 2, 2000)", user);
+            jdbc.update("INSERT INTO cart_items (cart_id, variant_id, qty, unit_price_cents_snapshot) VALUES (?, 7, 1, 3000)", user);
+        }
+        // the context, and the inventory's view with it, outlives each test
+        inventory.refreshSoldOut();
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbc.queryForObject(sql, Integer.class, args);
+    }
+
+    private int productStock() {
+        inventory.flush();
+        return count("SELECT qty_available FROM products WHERE product_id = 1");
+    }
+
+    private int variantStock() {
+        inventory.flush();
+        return count("SELECT qty_available FROM product_variants WHERE variant_id = 7");
+    }
+
+    private int usedCount(String code) {
+        return count("SELECT used_count FROM discount_codes WHERE code = ?", code);
+    }
+
+    @Test
+    void cartBecomesAnOrder() {
+        CheckoutResult result = checkout.placeOrder(1, null);
+
+        Order order = result.order();
+        assertEquals(7000, order.getSubtotalCents());
+        assertEquals(0, order.getDiscountCents());
+        assertEquals(578, order.getTaxCents());
+        assertEquals(7578, order.getTotalCents());
+        assertNull(order.getDiscountId());
+        assertEquals(1, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(2, count("SELECT COUNT(*) FROM order_items WHERE order_id = ?", order.getId()));
+        assertEquals("A2", jdbc.queryForObject(
+                "SELECT size_label FROM order_items WHERE order_id = ? AND variant_id = 7", String.class, order.getId()));
+        assertEquals(3, count("SELECT item_count FROM order_summaries WHERE order_id = ?", order.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM cart_items WHERE cart_id = 1"));
+        assertEquals(3, productStock());
+        assertEquals(1, variantStock());
+        verify(cartService).removeCheckedOut(eq(1), any());
+        verify(orderOutboxService).orderCreated(any());
+    }
+
+    @Test
+    void percentAndFixedCodesAreRedeemed() {
+        Order percent = checkout.placeOrder(1, "TENOFF").order();
+        assertEquals(700, percent.getDiscountCents());
+        assertEquals(520, percent.getTaxCents());
+        assertEquals(6820, percent.getTotalCents());
+        assertEquals(1, usedCount("TENOFF"));
+
+        Order fixed = checkout.placeOrder(2, " FIVE ").order();
+        assertEquals(500, fixed.getDiscountCents());
+        assertEquals(536, fixed.getTaxCents());
+        assertEquals(7036, fixed.getTotalCents());
+        assertEquals(1, usedCount("FIVE"));
+    }
+
+    @Test
+    void exhaustedCodeGivesNoDiscount() {
+        Order order = checkout.placeOrder(1, "GONE").order();
+
+        assertEquals(0, order.getDiscountCents());
+        assertNull(order.getDiscountId());
+        assertEquals(1, usedCount("GONE"));
+    }
+
+    @Test
+    void runningOutOfStockPlacesNothing() {
+        jdbc.update("UPDATE cart_items SET qty = 3 WHERE cart_id = 1 AND variant_id = 7");
+
+        assertThrows(InsufficientStockException.class, () -> checkout.placeOrder(1, "TENOFF"));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, usedCount("TENOFF"));
+        assertEquals(2, count("SELECT COUNT(*) FROM cart_items WHERE cart_id = 1"));
+        assertEquals(5, productStock());
+        assertEquals(2, variantStock());
+    }
+
+    @Test
+    void rolledBackOrderGivesItsStockBack() {
+        // no account, so recording the order summary fails after the stock is reserved
+        assertThrows(IllegalArgumentException.class, () -> checkout.placeOrder(3, "TENOFF"));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items"));
+        assertEquals(0, usedCount("TENOFF"));
+        assertEquals(2, count("SELECT COUNT(*) FROM cart_items WHERE cart_id = 3"));
+        assertEquals(5, productStock());
+        assertEquals(2, variantStock());
+        assertEquals(5, inventory.getAvailable(InventoryService.Sku.product(1)));
+    }
+
+    @Test
+    void inactiveVariantIsRefused() {
+        jdbc.update("UPDATE product_variants SET is_active = FALSE WHERE variant_id = 7");
+
+        assertThrows(IllegalStateException.class, () -> checkout.placeOrder(1, null));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(5, productStock());
+        assertEquals(2, variantStock());
+    }
+}
@@ -0,0 +1,28 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsAndLineEndings() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "title,description\r\n" +
+                "\"Skyline, Night\",\"Says \"\"hi\"\"\"\r\n" +
+                "Sunrise,\"two\nlines\"\n" +
+                "Empty,"));
+
+        assertEquals(List.of("title", "description"), csv.next());
+        assertEquals(List.of("Skyline, Night", "Says \"hi\""), csv.next());
+        assertEquals(List.of("Sunrise", "two\nlines"), csv.next());
+        assertEquals(List.of("Empty", ""), csv.next());
+        assertNull(csv.next());
+    }
+}
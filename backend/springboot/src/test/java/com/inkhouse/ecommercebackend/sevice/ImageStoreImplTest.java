@@ -0,0 +1,97 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageStoreImplTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageStoreImpl store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new ImageStoreImpl(dir.toString(), 1_000_000, 10_000_000, new int[]{800, 320, 1600}, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void storesUploadAndGeneratesResizedCopies() throws Exception {
+        byte[] png = png(1000, 500);
+        String key = store.store(new ByteArrayInputStream(png));
+
+        assertTrue(key.matches("[0-9a-f]{64}\\.png"));
+        assertEquals(key, store.store(new ByteArrayInputStream(png)), "same bytes, same key");
+        ImageStore.Image original = store.find(key, null).orElseThrow();
+        assertEquals(png.length, original.length());
+        assertEquals("image/png", original.contentType());
+
+        ImageStore.Image small = awaitVariant(key, 320);
+        BufferedImage scaled = ImageIO.read(small.file().toFile());
+        assertEquals(320, scaled.getWidth());
+        assertEquals(160, scaled.getHeight());
+        assertFalse(small.etag().equals(original.etag()));
+
+        // wider than the original: the original bytes under the variant name
+        ImageStore.Image wide = awaitVariant(key, 1600);
+        assertEquals(png.length, Files.size(wide.file()));
+    }
+
+    @Test
+    void rejectsNonImagesAndBadKeys() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))));
+        byte[] truncated = new byte[20]; // cut off inside the header
+        System.arraycopy(png(50, 50), 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> store.store(new ByteArrayInputStream(truncated)));
+
+        assertTrue(store.find("../../etc/passwd", null).isEmpty());
+        assertTrue(store.find("0".repeat(64) + ".png", null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> store.find("0".repeat(64) + ".png", 500));
+        try (var files = Files.list(dir.resolve("incoming"))) {
+            assertEquals(0, files.count(), "rejected uploads are cleaned up");
+        }
+    }
+
+    private ImageStore.Image awaitVariant(String key, int width) throws Exception {
+        for (int i = 0; i < 500; i++) {
+            ImageStore.Image image = store.find(key, width).orElseThrow();
+            if (!image.pending()) {
+                return image;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("variant w" + width + " was not generated");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x * height / width, 0xff0000);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
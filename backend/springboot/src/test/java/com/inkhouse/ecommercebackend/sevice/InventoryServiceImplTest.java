@@ -0,0 +1,173 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the ledger against an in-memory H2 stock table; two services on the same
+ * database stand in for two app instances.
+ */
+class InventoryServiceImplTest {
+
+    private static final InventoryService.Sku PRODUCT = InventoryService.Sku.product(1);
+    private static final InventoryService.Sku VARIANT = InventoryService.Sku.variant(7);
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS products");
+        jdbc.execute("DROP TABLE IF EXISTS product_variants");
+        jdbc.execute("CREATE TABLE products (product_id INT PRIMARY KEY, qty_available INT NOT NULL)");
+        jdbc.execute("CREATE TABLE product_variants (variant_id INT PRIMARY KEY, qty_available INT NOT NULL)");
+        jdbc.update("INSERT INTO products VALUES (1, 100)");
+        jdbc.update("INSERT INTO product_variants VALUES (7, 2)");
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private InventoryServiceImpl instance() {
+        return new InventoryServiceImpl(jdbc, tx, List.of(), 60_000);
+    }
+
+    private int qty(String table, String key, int id) {
+        return jdbc.queryForObject("SELECT qty_available FROM " + table + " WHERE " + key + " = ?", Integer.class, id);
+    }
+
+    @Test
+    void twoInstancesNeverOversell() throws InterruptedException {
+        InventoryServiceImpl[] instances = {instance(), instance()};
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 400; i++) {
+            InventoryServiceImpl inventory = instances[i % 2];
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    inventory.commit(inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 1))));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // sold out
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, sold.get());
+        assertEquals(0, qty("products", "product_id", 1));
+        assertEquals(0, instances[0].getAvailable(PRODUCT) + instances[1].getAvailable(PRODUCT));
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        InventoryServiceImpl inventory = instance();
+
+        assertThrows(InsufficientStockException.class, () -> inventory.reserve(List.of(
+                new InventoryService.Line(PRODUCT, 5), new InventoryService.Line(VARIANT, 3))));
+
+        assertEquals(100, qty("products", "product_id", 1));
+        assertEquals(2, qty("product_variants", "variant_id", 7));
+        assertEquals(100, inventory.getAvailable(PRODUCT));
+    }
+
+    @Test
+    void reservationCommitsBeforeTheOrderTransaction() {
+        InventoryServiceImpl inventory = instance();
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status ->
+                inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 4)))));
+
+        long id = inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 4)));
+        // the row isn't held: another connection can take stock while the order is written
+        tx.executeWithoutResult(status -> assertEquals(1,
+                jdbc.update("UPDATE products SET qty_available = qty_available - 1 WHERE product_id = 1")));
+        inventory.commit(id);
+        assertEquals(95, qty("products", "product_id", 1));
+    }
+
+    @Test
+    void releasedStockComesBackOnFlush() {
+        InventoryServiceImpl inventory = instance();
+        long id = inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 4)));
+        assertEquals(96, qty("products", "product_id", 1));
+
+        inventory.release(id);
+        assertEquals(100, inventory.getAvailable(PRODUCT));
+        assertEquals(1, inventory.flush());
+        assertEquals(100, qty("products", "product_id", 1));
+    }
+
+    @Test
+    void soldOutIsRefusedLocallyUntilRefreshed() {
+        InventoryServiceImpl inventory = instance();
+        inventory.commit(inventory.reserve(List.of(new InventoryService.Line(VARIANT, 2))));
+        assertEquals(0, inventory.getAvailable(VARIANT));
+
+        // restocked through another instance
+        jdbc.update("UPDATE product_variants SET qty_available = 5 WHERE variant_id = 7");
+        assertThrows(InsufficientStockException.class,
+                () -> inventory.reserve(List.of(new InventoryService.Line(VARIANT, 1))));
+
+        inventory.refreshSoldOut();
+        inventory.reserve(List.of(new InventoryService.Line(VARIANT, 1)));
+        assertEquals(4, qty("product_variants", "variant_id", 7));
+    }
+
+    @Test
+    void restockKeepsHeldAndReturnedUnits() {
+        InventoryServiceImpl inventory = instance();
+        long held = inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 4)));
+        long released = inventory.reserve(List.of(new InventoryService.Line(PRODUCT, 2)));
+        inventory.release(released);         // 100 on hand, 4 held, 2 not flushed back yet
+
+        inventory.setStock(PRODUCT, 20);      // admin: there are now 20 on hand
+        assertEquals(16, inventory.getAvailable(PRODUCT));
+        inventory.flush();
+        assertEquals(16, qty("products", "product_id", 1));
+
+        inventory.commit(held);
+        assertEquals(16, qty("products", "product_id", 1));
+    }
+
+    @Test
+    void restockRolledBackLeavesTheViewAlone() {
+        InventoryServiceImpl inventory = instance();
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            inventory.setStock(PRODUCT, 20);
+            throw new IllegalStateException("product update failed");
+        }));
+        assertEquals(100, qty("products", "product_id", 1));
+        assertEquals(100, inventory.getAvailable(PRODUCT));
+
+        tx.executeWithoutResult(status -> {
+            inventory.setStock(PRODUCT, 20);
+            assertEquals(100, inventory.getAvailable(PRODUCT));
+        });
+        assertEquals(20, inventory.getAvailable(PRODUCT));
+    }
+}
@@ -0,0 +1,56 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.AuthenticatedUser;
+import com.inkhouse.ecommercebackend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-minimum-256-bits-long-for-hs256";
+
+    private static User user(int id, String email) {
+        User user = new User();
+        user.setUser_id(id);
+        user.setEmail(email);
+        return user;
+    }
+
+    @Test
+    void verifiesIssuedTokenAndCachesIt() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 100);
+        String token = jwt.issueToken(user(7, "ariel@example.com")).token();
+
+        assertEquals(Optional.of(new AuthenticatedUser(7, "ariel@example.com")), jwt.verify(token));
+        assertEquals(1, jwt.cachedTokens());
+        assertEquals(Optional.of(new AuthenticatedUser(7, "ariel@example.com")), jwt.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedForeignAndExpiredTokens() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 100);
+        String token = jwt.issueToken(user(7, "ariel@example.com")).token();
+
+        assertTrue(jwt.verify(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        assertTrue(jwt.verify("mock-jwt-token-123").isEmpty());
+
+        JwtService other = new JwtService(SECRET.replace('t', 'q'), 60_000, 100);
+        assertTrue(other.verify(token).isEmpty());
+
+        JwtService expired = new JwtService(SECRET, -1_000, 100);
+        assertTrue(expired.verify(expired.issueToken(user(7, "ariel@example.com")).token()).isEmpty());
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 3);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(jwt.verify(jwt.issueToken(user(i, "u" + i + "@example.com")).token()).isPresent());
+        }
+        assertTrue(jwt.cachedTokens() <= 3);
+    }
+}
@@ -0,0 +1,143 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the outbox against an in-memory H2 table with an in-process handler
+ * that records what it receives.
+ */
+class OrderOutboxServiceImplTest {
+
+    private final List<OrderEvent> received = new ArrayList<>();
+    private final List<Integer> failingOrders = new ArrayList<>();
+    private final List<String> seenByHandler = new ArrayList<>();
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+    private OrderOutboxServiceImpl outbox;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS order_events");
+        jdbc.execute("CREATE TABLE order_events (event_id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT NOT NULL, " +
+                "event_type VARCHAR(40) NOT NULL, payload VARCHAR(1000) NOT NULL, created_at TIMESTAMP NOT NULL, " +
+                "available_at TIMESTAMP NOT NULL, attempts INT NOT NULL DEFAULT 0, claimed_until TIMESTAMP, " +
+                "last_error VARCHAR(500))");
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        OrderEventHandler handler = event -> {
+            if (failingOrders.contains(event.getOrderId())) {
+                throw new IllegalStateException("downstream unavailable");
+            }
+            received.add(event);
+            seenByHandler.add(TransactionSynchronizationManager.isActualTransactionActive() + " " +
+                    jdbc.queryForObject("SELECT claimed_until IS NOT NULL FROM order_events WHERE event_id = ?",
+                            Boolean.class, event.getId()));
+        };
+        outbox = new OrderOutboxServiceImpl(jdbc, tx, new ObjectMapper(), List.of(handler), 2, 3, 60_000, 30_000);
+    }
+
+    private static Order order(int id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(7);
+        order.setStatus("placed");
+        order.setTotalCents(2165);
+        return order;
+    }
+
+    private int rows() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM order_events", Integer.class);
+    }
+
+    @Test
+    void deliversInBatchesAndDeletesDeliveredRows() {
+        tx.executeWithoutResult(s -> {
+            outbox.orderCreated(order(1));
+            outbox.statusChanged(List.of(1, 2, 3), "fulfilled");
+        });
+        assertEquals(4, rows());
+
+        // batch size 2: the dispatcher keeps going until a batch comes back short
+        assertEquals(4, outbox.dispatch());
+        assertEquals(0, rows());
+        assertEquals(List.of(OrderEvent.CREATED, OrderEvent.STATUS_CHANGED, OrderEvent.STATUS_CHANGED, OrderEvent.STATUS_CHANGED),
+                received.stream().map(OrderEvent::getEventType).toList());
+        assertTrue(received.get(0).getPayload().contains("\"totalCents\":2165"));
+    }
+
+    @Test
+    void eventsRolledBackWithTheOrderAreNeverWritten() {
+        try {
+            tx.executeWithoutResult(s -> {
+                outbox.orderCreated(order(1));
+                throw new IllegalStateException("order insert failed");
+            });
+        } catch (IllegalStateException expected) {
+            // rolled back
+        }
+        assertEquals(0, rows());
+        assertEquals(0, outbox.dispatch());
+    }
+
+    @Test
+    void failedEventsAreKeptAndRetriedLater() {
+        failingOrders.add(2);
+        tx.executeWithoutResult(s -> {
+            outbox.orderCreated(order(1));
+            outbox.orderCreated(order(2));
+        });
+
+        assertEquals(1, outbox.dispatch());
+        assertEquals(1, rows());
+        assertEquals(1, jdbc.queryForObject("SELECT attempts FROM order_events WHERE order_id = 2", Integer.class));
+        assertTrue(jdbc.queryForObject("SELECT last_error FROM order_events", String.class).contains("downstream unavailable"));
+
+        // backed off, so not due yet
+        assertEquals(0, outbox.dispatch());
+
+        failingOrders.clear();
+        jdbc.update("UPDATE order_events SET available_at = CURRENT_TIMESTAMP - INTERVAL '1' MINUTE");
+        assertEquals(1, outbox.dispatch());
+        assertEquals(0, rows());
+    }
+
+    @Test
+    void handlersRunOutsideTheClaimingTransaction() {
+        tx.executeWithoutResult(s -> outbox.orderCreated(order(1)));
+
+        assertEquals(1, outbox.dispatch());
+        // no transaction (and so no row lock) while the handler ran, and the claim was already committed
+        assertEquals(List.of("false true"), seenByHandler);
+    }
+
+    @Test
+    void claimsOfADeadDispatcherLapse() {
+        tx.executeWithoutResult(s -> outbox.orderCreated(order(1)));
+        // another instance claimed it and stopped before delivering
+        jdbc.update("UPDATE order_events SET claimed_until = CURRENT_TIMESTAMP + INTERVAL '1' MINUTE");
+        assertEquals(0, outbox.dispatch());
+
+        jdbc.update("UPDATE order_events SET claimed_until = CURRENT_TIMESTAMP - INTERVAL '1' SECOND");
+        assertEquals(1, outbox.dispatch());
+        assertEquals(0, rows());
+    }
+}
@@ -0,0 +1,115 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.BulkStatusRequest;
+import com.inkhouse.ecommercebackend.dto.BulkStatusResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Bulk status changes against an embedded H2 with the schema generated from the
+ * entities. Orders 1..2500 belong to user 1 and are "placed", one day apart going
+ * back from DAY, except every tenth, which is "cancelled". That is more than two
+ * chunks of 1000.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"})
+@Import({OrderServiceImpl.class, OrderSummaryServiceImpl.class})
+class OrderServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final int ORDERS = 2500;
+
+    @Autowired
+    private OrderServiceImpl orders;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private OrderOutboxService orderOutboxService;
+
+    @MockitoBean
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO users (user_id, email, full_name, password) VALUES (1, 'a@example.com', 'A', 'x')");
+        List<Object[]> rows = new ArrayList<>(ORDERS);
+        for (int id = 1; id <= ORDERS; id++) {
+            rows.add(new Object[]{id, id % 10 == 0 ? "cancelled" : "placed", DAY.minusDays(id)});
+        }
+        jdbc.batchUpdate("INSERT INTO orders (order_id, user_id, subtotal_cents, discount_cents, tax_rate_basis, " +
+                "tax_cents, total_cents, status, placed_at) VALUES (?, 1, 1000, 0, 825, 83, 1083, ?, ?)", rows);
+    }
+
+    private static boolean cancelled(int id) {
+        return id % 10 == 0;
+    }
+
+    private List<Integer> idsIn(String status) {
+        return jdbc.queryForList("SELECT order_id FROM orders WHERE status = ? ORDER BY order_id", Integer.class, status);
+    }
+
+    @Test
+    void listedOrdersMoveInChunksAndTheRestAreSkipped() {
+        List<Integer> requested = new ArrayList<>(IntStream.rangeClosed(1, ORDERS).boxed().toList());
+        requested.add(5);          // a duplicate
+        requested.add(99_999);     // no such order
+
+        BulkStatusResult result = orders.updateOrderStatuses(new BulkStatusRequest(requested, "placed", "fulfilled", null));
+
+        List<Integer> placed = IntStream.rangeClosed(1, ORDERS).filter(id -> !cancelled(id)).boxed().toList();
+        List<Integer> skipped = new ArrayList<>(IntStream.rangeClosed(1, ORDERS).filter(OrderServiceImplTest::cancelled).boxed().toList());
+        skipped.add(99_999);
+        assertEquals(placed, result.updated().stream().sorted().toList());
+        assertEquals(skipped, result.skipped());
+        assertEquals(placed, idsIn("fulfilled"));
+        assertEquals(List.of(), idsIn("placed"));
+        // three chunks of requested ids
+        verify(orderOutboxService, times(3)).statusChanged(anyList(), eq("fulfilled"));
+    }
+
+    @Test
+    void unlistedOrdersMoveByStatusAndAge() {
+        // orders 1..1999 were placed after the cutoff
+        BulkStatusResult result = orders.updateOrderStatuses(
+                new BulkStatusRequest(null, "placed", "cancelled", DAY.minusDays(1999)));
+
+        List<Integer> old = IntStream.rangeClosed(2000, ORDERS).filter(id -> !cancelled(id)).boxed().toList();
+        assertEquals(old, result.updated());
+        assertEquals(List.of(), result.skipped());
+        assertEquals(IntStream.rangeClosed(1, 1999).filter(id -> !cancelled(id)).boxed().toList(), idsIn("placed"));
+
+        // everything still placed: a full chunk of 1000, then a short one
+        BulkStatusResult rest = orders.updateOrderStatuses(new BulkStatusRequest(null, "placed", "fulfilled", null));
+        assertEquals(1800, rest.updated().size());
+        verify(orderOutboxService, times(2)).statusChanged(anyList(), eq("fulfilled"));
+        assertEquals(List.of(), idsIn("placed"));
+    }
+
+    @Test
+    void unknownOrSameStatusIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> orders.updateOrderStatuses(
+                new BulkStatusRequest(List.of(1), "placed", "shipped", null)));
+        assertThrows(IllegalArgumentException.class, () -> orders.updateOrderStatuses(
+                new BulkStatusRequest(List.of(1), "placed", "placed", null)));
+    }
+}
@@ -0,0 +1,135 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.CursorPage;
+import com.inkhouse.ecommercebackend.dto.OrderSummaryFilter;
+import com.inkhouse.ecommercebackend.model.Order;
+import com.inkhouse.ecommercebackend.model.OrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The admin order list against an embedded H2 with the schema generated from the
+ * entities. Users 1 and 2 are a@example.com and b@example.com.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"})
+@Import(OrderSummaryServiceImpl.class)
+class OrderSummaryServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderSummaryServiceImpl summaries;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO users (user_id, email, full_name, password) VALUES (1, 'a@example.com', 'A', 'x')");
+        jdbc.update("INSERT INTO users (user_id, email, full_name, password) VALUES (2, 'b@example.com', 'B', 'x')");
+    }
+
+    private static Order order(int id, int userId, String status, int daysAgo, int totalCents) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setStatus(status);
+        order.setPlacedAt(DAY.minusDays(daysAgo));
+        order.setSubtotalCents(totalCents);
+        order.setDiscountCents(0);
+        order.setTaxCents(0);
+        order.setTotalCents(totalCents);
+        return order;
+    }
+
+    private static List<Integer> ids(List<OrderSummary> rows) {
+        return rows.stream().map(OrderSummary::getOrderId).toList();
+    }
+
+    // Every id the search returns, following cursors two rows at a time
+    private List<Integer> allPages(OrderSummaryFilter filter, OrderSummaryService.SortOrder sort) {
+        List<Integer> all = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<OrderSummary> page = summaries.search(filter, sort, after, 2);
+            all.addAll(ids(page.items()));
+            after = page.nextCursor();
+        } while (after != null);
+        return all;
+    }
+
+    @Test
+    void searchFiltersAndSortsAcrossPages() {
+        summaries.recordOrder(order(1, 1, "placed", 5, 3000), 1);
+        summaries.recordOrder(order(2, 1, "fulfilled", 4, 9000), 2);
+        summaries.recordOrder(order(3, 2, "placed", 3, 3000), 1);
+        summaries.recordOrder(order(4, 2, "placed", 2, 7000), 3);
+        summaries.recordOrder(order(5, 1, "placed", 1, 1000), 1);
+
+        OrderSummaryFilter none = new OrderSummaryFilter(null, null, null, null);
+        assertEquals(List.of(5, 4, 3, 2, 1), allPages(none, OrderSummaryService.SortOrder.NEWEST));
+        // equal totals fall back to order_id, newest id first
+        assertEquals(List.of(2, 4, 3, 1, 5), allPages(none, OrderSummaryService.SortOrder.LARGEST));
+
+        OrderSummaryFilter placed = new OrderSummaryFilter(null, "placed", null, null);
+        assertEquals(List.of(4, 3, 1, 5), allPages(placed, OrderSummaryService.SortOrder.LARGEST));
+        OrderSummaryFilter customer = new OrderSummaryFilter("a@example.com", null, null, null);
+        assertEquals(List.of(2, 1, 5), allPages(customer, OrderSummaryService.SortOrder.LARGEST));
+        assertEquals(List.of(5, 2, 1), allPages(customer, OrderSummaryService.SortOrder.NEWEST));
+
+        // from inclusive, to exclusive
+        OrderSummaryFilter range = new OrderSummaryFilter(null, "placed", DAY.minusDays(3), DAY.minusDays(1));
+        assertEquals(List.of(4, 3), allPages(range, OrderSummaryService.SortOrder.NEWEST));
+    }
+
+    @Test
+    void statusChangesMoveOrdersBetweenFilters() {
+        summaries.recordOrder(order(1, 1, "placed", 2, 3000), 1);
+        summaries.recordOrder(order(2, 2, "placed", 1, 4000), 1);
+
+        summaries.updateStatuses(List.of(1, 2), "fulfilled");
+        summaries.updateStatus(2, "cancelled");
+
+        CursorPage<OrderSummary> fulfilled = summaries.search(
+                new OrderSummaryFilter(null, "fulfilled", null, null), OrderSummaryService.SortOrder.NEWEST, null, 10);
+        assertEquals(List.of(1), ids(fulfilled.items()));
+        assertNull(fulfilled.nextCursor());
+    }
+
+    @Test
+    void rebuildRecomputesRowsFromOrders() {
+        jdbc.update("INSERT INTO orders (order_id, user_id, subtotal_cents, discount_cents, tax_rate_basis, tax_cents, " +
+                "total_cents, status, placed_at) VALUES (10, 1, 2000, 0, 825, 165, 2165, 'placed', ?)", DAY);
+        jdbc.update("INSERT INTO orders (order_id, user_id, subtotal_cents, discount_cents, tax_rate_basis, tax_cents, " +
+                "total_cents, status, placed_at) VALUES (11, 2, 1000, 100, 825, 74, 974, 'fulfilled', ?)", DAY);
+        jdbc.update("INSERT INTO order_items (order_id, title_snapshot, unit_price_cents, qty) VALUES (10, 'P', 500, 3)");
+        jdbc.update("INSERT INTO order_items (order_id, title_snapshot, unit_price_cents, qty) VALUES (10, 'Q', 500, 1)");
+        // a summary left behind by an order deleted outside the service, and one with a stale email
+        summaries.recordOrder(order(99, 1, "placed", 0, 1), 1);
+        summaries.recordOrder(order(11, 1, "placed", 0, 974), 1);
+
+        assertEquals(2, summaries.rebuild());
+
+        List<OrderSummary> rows = summaries.search(new OrderSummaryFilter(null, null, null, null),
+                OrderSummaryService.SortOrder.LARGEST, null, 10).items();
+        assertEquals(List.of(10, 11), ids(rows));
+        assertEquals(4, rows.get(0).getItemCount());
+        assertEquals(0, rows.get(1).getItemCount());
+        assertEquals("b@example.com", rows.get(1).getCustomerEmail());
+        assertEquals("fulfilled", rows.get(1).getStatus());
+        assertEquals(974, rows.get(1).getTotalCents());
+    }
+}
@@ -0,0 +1,30 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorsTest {
+
+    @Test
+    void roundTripsOrderKey() {
+        String cursor = PageCursors.encode("2025-01-31T10:15:30.123", "42");
+        assertArrayEquals(new String[]{"2025-01-31T10:15:30.123", "42"}, PageCursors.decode(cursor, 2));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursors.decode("not base64!", 1));
+        assertThrows(IllegalArgumentException.class, () -> PageCursors.decode(PageCursors.encode("42"), 2));
+    }
+
+    @Test
+    void clampsLimit() {
+        assertEquals(PageCursors.DEFAULT_LIMIT, PageCursors.clampLimit(null));
+        assertEquals(PageCursors.DEFAULT_LIMIT, PageCursors.clampLimit(0));
+        assertEquals(PageCursors.MAX_LIMIT, PageCursors.clampLimit(10_000));
+        assertEquals(25, PageCursors.clampLimit(25));
+    }
+}
@@ -0,0 +1,46 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PricingEngineTest {
+
+    @Test
+    void taxRoundsHalfUp() {
+        // 1000 * 8.25% = 82.5 -> 83
+        assertEquals(83, PricingEngine.taxCents(1000, 825));
+        assertEquals(82, PricingEngine.taxCents(999, 825));
+        assertEquals(0, PricingEngine.taxCents(0, 825));
+    }
+
+    @Test
+    void discountIsCappedAtSubtotal() {
+        assertEquals(300, PricingEngine.discountCents(PricingEngine.FIXED, 500, 300));
+        assertEquals(150, PricingEngine.discountCents(PricingEngine.PERCENT, 1000, 1500));
+        assertEquals(0, PricingEngine.discountCents(PricingEngine.NO_DISCOUNT, 1000, 1500));
+        assertEquals(PricingEngine.PERCENT, PricingEngine.discountType("percent"));
+    }
+
+    @Test
+    void pricesCartsInOnePass() {
+        int[] lineStart = {0, 2, 3};
+        int[] qty = {2, 1, 4};
+        int[] unitPrice = {1000, 500, 250};
+        byte[] type = {PricingEngine.PERCENT, PricingEngine.FIXED};
+        int[] value = {1000, 2000};
+        int[] subtotal = new int[2], discount = new int[2], tax = new int[2], total = new int[2];
+
+        PricingEngine.priceCarts(2, lineStart, qty, unitPrice, type, value, 825, subtotal, discount, tax, total);
+
+        assertArrayEquals(new int[]{2500, 1000}, subtotal);
+        assertArrayEquals(new int[]{250, 1000}, discount);
+        assertArrayEquals(new int[]{186, 0}, tax);
+        assertArrayEquals(new int[]{2436, 0}, total);
+
+        PricingEngine.retax(2, subtotal, discount, 1000, tax, total);
+        assertArrayEquals(new int[]{225, 0}, tax);
+        assertArrayEquals(new int[]{2475, 0}, total);
+    }
+}
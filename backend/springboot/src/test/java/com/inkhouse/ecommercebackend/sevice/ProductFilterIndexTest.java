@@ -0,0 +1,110 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import com.inkhouse.ecommercebackend.model.ProductVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductFilterIndexTest {
+
+    private ProductFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFilterIndex(null, new int[]{1500, 2500, 4000});
+        index.rebuild(List.of(
+                        product(1, 1999, 10, true),
+                        product(2, 999, 0, true),
+                        product(3, 4500, 0, true),
+                        product(4, 2999, 5, false)),
+                List.of(
+                        variant(10, 2, "18x24", "Matte", 3, true),
+                        variant(11, 3, "18x24", "Glossy", 0, true),
+                        variant(12, 3, "12x18", "Matte", 0, false),
+                        variant(13, 1, "12x18", "Glossy", 1, true)));
+    }
+
+    @Test
+    void intersectsFacetsAndCountsOtherSelections() {
+        ProductFilterIndex.Result result = index.filter(Map.of(
+                ProductFilterIndex.Facet.ACTIVE, List.of("true"),
+                ProductFilterIndex.Facet.SIZE, List.of("18x24")), null, 20);
+
+        assertEquals(List.of(2, 3), result.ids());
+        assertEquals(2, result.total());
+        // variant 12 is inactive, so product 3 has no 12x18; counts ignore the size selection itself
+        assertEquals(Map.of("12x18", 1, "18x24", 2), result.facets().get("size"));
+        assertEquals(Map.of("true", 2, "false", 0), result.facets().get("active"));
+        assertEquals(Map.of("in", 1, "out", 1), result.facets().get("stock"));
+        assertEquals(List.of("0-1499", "1500-2499", "2500-3999", "4000+"),
+                List.copyOf(result.facets().get("price").keySet()));
+
+        ProductFilterIndex.Result priced = index.filter(Map.of(
+                ProductFilterIndex.Facet.PRICE, List.of("0-1499", "4000+"),
+                ProductFilterIndex.Facet.FINISH, List.of("Matte")), null, 20);
+        assertEquals(List.of(2), priced.ids());
+
+        assertEquals(List.of(), index.filter(Map.of(ProductFilterIndex.Facet.SIZE, List.of("99x99")), null, 20).ids());
+        assertThrows(IllegalArgumentException.class,
+                () -> index.filter(Map.of(ProductFilterIndex.Facet.STOCK, List.of("maybe")), null, 20));
+    }
+
+    @Test
+    void pagesInIdOrder() {
+        ProductFilterIndex.Result first = index.filter(Map.of(), null, 3);
+        assertEquals(List.of(1, 2, 3), first.ids());
+        assertTrue(first.hasMore());
+        assertEquals(4, first.total());
+
+        ProductFilterIndex.Result second = index.filter(Map.of(), 3, 3);
+        assertEquals(List.of(4), second.ids());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void followsProductWritesAndStockChanges() {
+        Map<ProductFilterIndex.Facet, List<String>> inStock = Map.of(ProductFilterIndex.Facet.STOCK, List.of("in"));
+        assertEquals(List.of(1, 2, 4), index.filter(inStock, null, 20).ids());
+
+        // last units of variant 10 reserved: product 2 has nothing else left
+        index.onStockChanged(InventoryService.Sku.variant(10), () -> 0);
+        assertEquals(List.of(1, 4), index.filter(inStock, null, 20).ids());
+        index.onStockChanged(InventoryService.Sku.product(3), () -> 7);
+        assertEquals(List.of(1, 3, 4), index.filter(inStock, null, 20).ids());
+
+        index.onPut(product(4, 2999, 5, true));
+        index.onPut(product(5, 1200, 8, true));
+        index.onRemove(1);
+        ProductFilterIndex.Result active = index.filter(Map.of(ProductFilterIndex.Facet.ACTIVE, List.of("true")), null, 20);
+        assertEquals(List.of(2, 3, 4, 5), active.ids());
+        assertEquals(Map.of("18x24", 2), active.facets().get("size"), "12x18 left with product 1");
+
+        // the freed ordinal is reused
+        index.onPut(product(6, 5000, 1, true));
+        assertEquals(List.of(2, 3, 4, 5, 6), index.filter(Map.of(), null, 20).ids());
+    }
+
+    private static ProductView product(int id, int priceCents, int qty, boolean active) {
+        return new ProductView(id, "Poster " + id, null, null, priceCents, qty, active, 0L, null, null);
+    }
+
+    private static ProductVariant variant(int id, int productId, String size, String finish, int qty, boolean active) {
+        ProductVariant variant = new ProductVariant();
+        variant.setId(id);
+        variant.setProductId(productId);
+        variant.setSizeLabel(size);
+        variant.setFinishLabel(finish);
+        variant.setPriceCents(2000);
+        variant.setQtyAvailable(qty);
+        variant.setIsActive(active);
+        return variant;
+    }
+}
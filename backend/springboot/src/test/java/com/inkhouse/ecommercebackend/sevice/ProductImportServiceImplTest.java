@@ -0,0 +1,114 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inkhouse.ecommercebackend.dto.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Imports into an embedded H2 in batches of two products, each committed on its own.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "catalog.import.batch-size=2"})
+@Import({ProductImportServiceImpl.class, ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImportServiceImplTest {
+
+    @Autowired
+    private ProductImportServiceImpl importer;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM product_variants");
+        jdbc.update("DELETE FROM products");
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> titles() {
+        return jdbc.queryForList("SELECT title FROM products ORDER BY product_id", String.class);
+    }
+
+    @Test
+    void badElementKeepsTheBatchesBeforeIt() {
+        String json = "[{\"title\":\"A\",\"basePriceCents\":100},{\"title\":\"B\",\"basePriceCents\":100}," +
+                "{\"title\":\"C\",\"basePriceCents\":100},42]";
+
+        ProductImportException e = assertThrows(ProductImportException.class, () -> importer.importJson(body(json)));
+
+        ImportResult result = e.getResult();
+        assertEquals(2, result.products());
+        assertEquals(1, result.batches());
+        assertTrue(result.error().contains("element 3"), result.error());
+        assertEquals(List.of("A", "B"), titles());
+        verify(catalogCache).reload();
+    }
+
+    @Test
+    void duplicateVariantIsABadRequest() {
+        String json = "[{\"title\":\"A\",\"basePriceCents\":100,\"variants\":[" +
+                "{\"sizeLabel\":\"A2\",\"finishLabel\":\"Matte\",\"priceCents\":200}," +
+                "{\"sizeLabel\":\"A2\",\"finishLabel\":\"Matte\",\"priceCents\":300}]}]";
+
+        ProductImportException e = assertThrows(ProductImportException.class, () -> importer.importJson(body(json)));
+
+        assertEquals(0, e.getResult().products());
+        assertTrue(e.getResult().error().startsWith("Batch 1 was rejected"), e.getResult().error());
+        assertEquals(List.of(), titles());
+        verify(catalogCache, never()).reload();
+    }
+
+    @Test
+    void csvRowsShareAProductByRef() throws IOException {
+        String csv = """
+                product_ref,title,base_price_cents,size_label,finish_label,variant_price_cents
+                p1,Skyline,1000,A2,Matte,1500
+                p1,,,A3,Matte,1200
+                ,Skyline,1000,,,
+                p2,Skyline,900,,,
+                """;
+
+        ImportResult result = importer.importCsv(body(csv));
+
+        assertNull(result.error());
+        assertEquals(3, result.products());
+        assertEquals(2, result.variants());
+        assertEquals(2, (int) jdbc.queryForObject(
+                "SELECT COUNT(*) FROM product_variants v JOIN products p ON p.product_id = v.product_id " +
+                        "WHERE p.base_price_cents = 1000", Integer.class));
+
+        String split = "product_ref,title,base_price_cents\np1,A,100\np2,B,100\np1,A,100\n";
+        ProductImportException e = assertThrows(ProductImportException.class, () -> importer.importCsv(body(split)));
+        assertTrue(e.getResult().error().contains("consecutive"), e.getResult().error());
+    }
+}
@@ -0,0 +1,55 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+                entry(1, "Premade UTSA Skyline", "Popular premade poster"),
+                entry(2, "Downtown Skyline at Night", null),
+                entry(3, "Mountain Sunrise", "Skyline optional")
+        ), 0);
+        index.onReload(snapshot);
+    }
+
+    @Test
+    void matchesPrefixesAndRanksTitleAboveDescription() {
+        assertEquals(List.of(1, 2, 3), index.search("sky", null));
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertEquals(List.of(2), index.search("skyline night", null));
+        assertTrue(index.search("skyline ocean", null).isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        index.onPut(view(3, "Mountain Sunrise", null));
+        assertEquals(List.of(1, 2), index.search("skyline", null));
+
+        index.onRemove(1);
+        assertEquals(List.of(2), index.search("skyline", 10));
+        assertEquals(List.of(3), index.search("MOUNTAIN", 1));
+    }
+
+    private static CatalogSnapshot.Entry entry(int id, String title, String description) {
+        return new CatalogSnapshot.Entry(view(id, title, description), new byte[0], new byte[0]);
+    }
+
+    private static ProductView view(int id, String title, String description) {
+        return new ProductView(id, title, description, null, 1999, 10, true, 0L, null, null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.model.Product;
+import com.inkhouse.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Optimistic locking on product edits: the version the client read has to match
+ * the row's, and a body without a version isn't checked.
+ */
+class ProductServiceImplTest {
+
+    private ProductRepository repository;
+    private CatalogCache catalogCache;
+    private ProductServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepository.class);
+        catalogCache = mock(CatalogCache.class);
+        service = new ProductServiceImpl(repository, catalogCache, mock(ProductSearchIndex.class),
+                mock(ProductFilterIndex.class), mock(InventoryService.class));
+
+        Product stored = product("Old title", 3L);
+        stored.setId(1);
+        when(repository.findById(1)).thenReturn(Optional.of(stored));
+        when(repository.saveAndFlush(any(Product.class))).thenAnswer(call -> call.getArgument(0));
+    }
+
+    private static Product product(String title, Long version) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setBasePriceCents(2500);
+        product.setIsActive(true);
+        product.setVersion(version);
+        return product;
+    }
+
+    @Test
+    void updateWithTheCurrentVersionIsSaved() {
+        Product saved = service.updateProduct(1, product("New title", 3L));
+
+        assertEquals("New title", saved.getTitle());
+        verify(catalogCache).put(saved);
+    }
+
+    @Test
+    void updateWithAStaleVersionIsRejected() {
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.updateProduct(1, product("New title", 2L)));
+
+        verify(repository, never()).saveAndFlush(any(Product.class));
+        verify(catalogCache, never()).put(any(Product.class));
+    }
+
+    @Test
+    void updateWithoutAVersionIsNotChecked() {
+        // a fresh Product (what a JSON body without "version" turns into) carries no version
+        assertEquals(null, new Product().getVersion());
+
+        assertEquals("New title", service.updateProduct(1, product("New title", null)).getTitle());
+    }
+}
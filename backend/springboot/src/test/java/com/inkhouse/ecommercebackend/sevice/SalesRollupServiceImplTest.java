@@ -0,0 +1,202 @@
+package com.inkhouse.ecommercebackend.sevice;
+
+import com.inkhouse.ecommercebackend.dto.SalesReport;
+import com.inkhouse.ecommercebackend.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Builds the rollups from an in-memory H2 orders table, then applies changes the
+ * way the order services report them.
+ */
+class SalesRollupServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 10, 5, 0, 0);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+    private SalesRollupServiceImpl rollups;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:sales;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS orders");
+        jdbc.execute("CREATE TABLE orders (order_id INT PRIMARY KEY, placed_at TIMESTAMP NOT NULL, " +
+                "status VARCHAR(20) NOT NULL, subtotal_cents INT NOT NULL, discount_cents INT NOT NULL, " +
+                "tax_cents INT NOT NULL, total_cents INT NOT NULL)");
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        rollups = new SalesRollupServiceImpl(jdbc, tx);
+    }
+
+    private void insert(int id, LocalDateTime placedAt, String status, int subtotal, int discount, int tax) {
+        jdbc.update("INSERT INTO orders VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, placedAt, status, subtotal, discount, tax, subtotal - discount + tax);
+    }
+
+    private static Order order(int id, LocalDateTime placedAt, String status, int subtotal, int tax) {
+        Order order = new Order();
+        order.setId(id);
+        order.setPlacedAt(placedAt);
+        order.setStatus(status);
+        order.setSubtotalCents(subtotal);
+        order.setDiscountCents(0);
+        order.setTaxCents(tax);
+        order.setTotalCents(subtotal + tax);
+        return order;
+    }
+
+    // Runs work on another thread, as another request would, and waits for it
+    private static void elsewhere(Runnable work) {
+        Thread thread = Thread.ofPlatform().start(work);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SalesReport.Row total(String status) {
+        return rollups.report(DAY, DAY.plusDays(2), SalesRollupService.Granularity.DAY, status).total();
+    }
+
+    @Test
+    void rebuildsPerHourAndPerDay() {
+        insert(1, DAY.plusHours(9).plusMinutes(15), "placed", 2000, 200, 149);
+        insert(2, DAY.plusHours(9).plusMinutes(50), "fulfilled", 1000, 0, 83);
+        insert(3, DAY.plusHours(13), "cancelled", 4000, 0, 330);
+        insert(4, DAY.plusDays(1).plusHours(1), "placed", 3000, 0, 248);
+        insert(5, DAY.minusMinutes(1), "placed", 9999, 0, 0);
+        assertThrows(IllegalStateException.class, () -> total(null));
+
+        assertEquals(5, rollups.rebuild());
+
+        SalesReport byDay = rollups.report(DAY, DAY.plusDays(2), SalesRollupService.Granularity.DAY, null);
+        assertEquals(List.of(DAY, DAY.plusDays(1)), byDay.rows().stream().map(SalesReport.Row::start).toList());
+        assertEquals(new SalesReport.Row(DAY, 3, 7000, 200, 562, 7362), byDay.rows().get(0));
+        assertEquals(new SalesReport.Row(null, 4, 10000, 200, 810, 10610), byDay.total());
+
+        // hours that only partly overlap the range still count
+        SalesReport byHour = rollups.report(DAY.plusHours(9).plusMinutes(30), DAY.plusHours(13).plusMinutes(1),
+                SalesRollupService.Granularity.HOUR, "placed");
+        assertEquals(1, byHour.rows().size());
+        assertEquals(new SalesReport.Row(DAY.plusHours(9), 1, 2000, 200, 149, 1949), byHour.rows().get(0));
+
+        assertThrows(IllegalArgumentException.class, () -> total("shipped"));
+        assertThrows(IllegalArgumentException.class,
+                () -> rollups.report(DAY, DAY, SalesRollupService.Granularity.DAY, null));
+    }
+
+    @Test
+    void changesCountOnceTheirTransactionCommits() {
+        rollups.rebuild();
+        Order order = order(1, DAY.plusHours(10), "placed", 2000, 165);
+
+        try {
+            tx.executeWithoutResult(s -> {
+                rollups.orderPlaced(order);
+                throw new IllegalStateException("order insert failed");
+            });
+        } catch (IllegalStateException expected) {
+            // rolled back
+        }
+        assertEquals(0, total(null).orders());
+
+        tx.executeWithoutResult(s -> rollups.orderPlaced(order));
+        assertEquals(1, total("placed").orders());
+
+        order.setStatus("fulfilled");
+        tx.executeWithoutResult(s -> rollups.statusChanged(order, "placed"));
+        assertEquals(0, total("placed").orders());
+        assertEquals(new SalesReport.Row(null, 1, 2000, 0, 165, 2165), total("fulfilled"));
+
+        tx.executeWithoutResult(s -> rollups.orderRemoved(order));
+        assertEquals(new SalesReport.Row(null, 0, 0, 0, 0, 0), total(null));
+        assertEquals(0, rollups.report(DAY, DAY.plusDays(1), SalesRollupService.Granularity.HOUR, null).rows().size());
+    }
+
+    @Test
+    void bulkStatusMovesAndRepricingReadTheOrdersBack() {
+        insert(1, DAY.plusHours(8), "placed", 1000, 0, 83);
+        insert(2, DAY.plusHours(20), "placed", 3000, 500, 206);
+        rollups.rebuild();
+
+        tx.executeWithoutResult(s -> {
+            rollups.totalsChanging(2, new int[]{1, 2}, new int[]{85, 213}, new int[]{1085, 2713});
+            jdbc.update("UPDATE orders SET tax_cents = tax_cents + 2, total_cents = total_cents + 2 WHERE order_id = 1");
+            jdbc.update("UPDATE orders SET tax_cents = tax_cents + 7, total_cents = total_cents + 7 WHERE order_id = 2");
+        });
+        assertEquals(new SalesReport.Row(null, 2, 4000, 500, 298, 3798), total("placed"));
+
+        tx.executeWithoutResult(s -> {
+            jdbc.update("UPDATE orders SET status = 'fulfilled' WHERE order_id = 2");
+            rollups.statusesChanged(List.of(2), "placed", "fulfilled");
+        });
+        assertEquals(new SalesReport.Row(null, 1, 1000, 0, 85, 1085), total("placed"));
+        assertEquals(new SalesReport.Row(null, 1, 3000, 500, 213, 2713), total("fulfilled"));
+
+        // a rebuild agrees with what was applied incrementally
+        rollups.rebuild();
+        assertEquals(new SalesReport.Row(null, 2, 4000, 500, 298, 3798), total(null));
+    }
+
+    @Test
+    void ordersChangedAsARebuildScansCountOnce() {
+        insert(1, DAY.plusHours(8), "placed", 1000, 0, 83);
+        insert(2, DAY.plusHours(9), "placed", 2000, 0, 165);
+        rollups.rebuild();
+        Order placedLate = order(3, DAY.plusHours(10), "placed", 3000, 248);
+        Order fulfilled = order(2, DAY.plusHours(9), "fulfilled", 2000, 165);
+
+        AtomicBoolean armed = new AtomicBoolean(true);
+        JdbcTemplate racing = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                if (!armed.getAndSet(false)) {
+                    super.query(psc, rch);
+                    return;
+                }
+                // commits before the scan's snapshot, but is reported after the rebuild began
+                elsewhere(() -> tx.executeWithoutResult(s -> {
+                    insert(3, placedLate.getPlacedAt(), "placed", 3000, 0, 248);
+                    rollups.orderPlaced(placedLate);
+                }));
+                AtomicBoolean first = new AtomicBoolean(true);
+                super.query(psc, rs -> {
+                    if (first.getAndSet(false)) {
+                        // commits while the scan is reading, after its snapshot
+                        elsewhere(() -> tx.executeWithoutResult(s -> {
+                            jdbc.update("UPDATE orders SET status = 'fulfilled' WHERE order_id = 2");
+                            rollups.statusChanged(fulfilled, "placed");
+                        }));
+                    }
+                    rch.processRow(rs);
+                });
+            }
+        };
+        rollups = new SalesRollupServiceImpl(racing, tx);
+
+        rollups.rebuild();
+
+        assertEquals(new SalesReport.Row(null, 2, 4000, 0, 331, 4331), total("placed"));
+        assertEquals(new SalesReport.Row(null, 1, 2000, 0, 165, 2165), total("fulfilled"));
+        // and an undisturbed rebuild agrees
+        rollups.rebuild();
+        assertEquals(new SalesReport.Row(null, 3, 6000, 0, 496, 6496), total(null));
+    }
+}
@@ -138,7 +138,8 @@ export default function AdminProducts() {
             };
 
             if (editingProduct?.id != null) {
-                await productsApi.updateProduct(editingProduct.id, payload);
+                // the version we loaded; the server answers 409 if someone saved in between
+                await productsApi.updateProduct(editingProduct.id, { ...payload, version: editingProduct.version });
             } else {
                 await productsApi.createProduct(payload);
             }
@@ -148,7 +149,12 @@ export default function AdminProducts() {
             await fetchProducts();
         } catch (e) {
             console.error('Error saving product:', e);
-            setError(e.message || 'Failed to save product');
+            if (e.message?.includes('status: 409')) {
+                setError('This product was changed by someone else. Reload and try again.');
+                await fetchProducts();
+            } else {
+                setError(e.message || 'Failed to save product');
+            }
         } finally {
             setSubmitting(false);
         }
@@ -27,6 +27,8 @@ export const ordersApi = {
 
     getOrdersByUserId: async (userId) => api.get(`/orders/user/${userId}`),
 
+    // { userId, items: [{ productId | variantId | designId, qty }], discountCode? }
+    // totals are computed by the backend from catalog prices
     createOrder: async (order) => api.post('/orders', order),
 
     // PATCH /api/orders/:id/status?status=fulfilled
@@ -59,6 +59,7 @@ CREATE TABLE IF NOT EXISTS products (
   base_price_cents  INT NOT NULL,               -- stored in cents to avoid rounding errors
   qty_available     INT NOT NULL DEFAULT 0,
   is_active         TINYINT(1) NOT NULL DEFAULT 1,
+  version           BIGINT NOT NULL DEFAULT 0,    -- optimistic lock counter (JPA @Version)
   created_at        TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at        TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 ) ENGINE=InnoDB;
@@ -76,6 +77,14 @@ WHERE NOT EXISTS (
 -- Quick check to confirm product was inserted
 SELECT product_id, title, base_price_cents, qty_available FROM products LIMIT 5;
 
+-- Id allocation for products and variants
+-- The backend hands out product/variant ids in blocks of 100 from this table
+-- so bulk inserts can be batched. next_val is the first id of the next block.
+CREATE TABLE IF NOT EXISTS id_generators (
+  gen_name  VARCHAR(255) PRIMARY KEY,
+  next_val  BIGINT NOT NULL
+) ENGINE=InnoDB;
+
 -- 4) Product Variants
 -- Each catalog product can have multiple versions (different sizes or finishes).
 -- Variants inherit from the base product but have their own pricing and quantity.
@@ -87,6 +96,7 @@ CREATE TABLE IF NOT EXISTS product_variants (
   price_cents    INT NOT NULL,             -- variant-specific price
   qty_available  INT NOT NULL DEFAULT 0,
   is_active      TINYINT(1) NOT NULL DEFAULT 1,
+  version        BIGINT NOT NULL DEFAULT 0,  -- optimistic lock counter (JPA @Version)
   created_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   UNIQUE(product_id, size_label, finish_label),
@@ -601,6 +611,67 @@ CREATE INDEX idx_orders_total_cents ON orders (total_cents DESC);
 
 
 
+-- 12) Admin order summary read model
+-- One narrow row per order (customer email and unit count copied in), kept up to date
+-- by the backend in the same transaction as each order insert/status change/delete.
+-- The admin order list reads this table instead of recomputing v_orders_admin;
+-- each index below matches one filter (none, customer or status) + sort (newest or
+-- largest) the list offers. A date range narrows the newest scans; sorted by largest,
+-- or with customer and status together, the extra condition is checked row by row.
+
+CREATE TABLE IF NOT EXISTS order_summaries (
+  order_id        BIGINT PRIMARY KEY,
+  user_id         BIGINT NOT NULL,
+  customer_email  VARCHAR(255) NOT NULL,
+  status          ENUM('placed','fulfilled','cancelled') NOT NULL,
+  placed_at       DATETIME NOT NULL,
+  item_count      INT NOT NULL DEFAULT 0,
+  subtotal_cents  INT NOT NULL,
+  discount_cents  INT NOT NULL,
+  tax_cents       INT NOT NULL,
+  total_cents     INT NOT NULL,
+  INDEX idx_os_placed (placed_at, order_id),
+  INDEX idx_os_email_placed (customer_email, placed_at, order_id),
+  INDEX idx_os_status_placed (status, placed_at, order_id),
+  INDEX idx_os_total (total_cents, order_id),
+  INDEX idx_os_email_total (customer_email, total_cents, order_id),
+  INDEX idx_os_status_total (status, total_cents, order_id),
+  INDEX idx_os_user (user_id)
+) ENGINE=InnoDB;
+
+-- Backfill from existing orders (the backend exposes the same as POST /api/orders/summary/rebuild)
+INSERT IGNORE INTO order_summaries (order_id, user_id, customer_email, status, placed_at,
+                                    item_count, subtotal_cents, discount_cents, tax_cents, total_cents)
+SELECT o.order_id, o.user_id, u.email, o.status, o.placed_at, COALESCE(i.units, 0),
+       o.subtotal_cents, o.discount_cents, o.tax_cents, o.total_cents
+FROM orders o
+JOIN users u ON u.user_id = o.user_id
+LEFT JOIN (SELECT order_id, SUM(qty) AS units FROM order_items GROUP BY order_id) i
+  ON i.order_id = o.order_id;
+
+
+
+-- 13) Order event outbox
+-- The backend inserts a row here in the same transaction as each order insert or
+-- status change; a background dispatcher delivers due rows in batches and deletes
+-- them. claimed_until is the dispatcher's lease on a row while its handlers run.
+-- Rows with attempts at the configured maximum failed for good (see last_error).
+
+CREATE TABLE IF NOT EXISTS order_events (
+  event_id      BIGINT AUTO_INCREMENT PRIMARY KEY,
+  order_id      BIGINT NOT NULL,
+  event_type    VARCHAR(40) NOT NULL,
+  payload       JSON NOT NULL,
+  created_at    DATETIME NOT NULL,
+  available_at  DATETIME NOT NULL,
+  attempts      INT NOT NULL DEFAULT 0,
+  claimed_until DATETIME NULL,
+  last_error    VARCHAR(500) NULL,
+  INDEX idx_oe_available (available_at, event_id)
+) ENGINE=InnoDB;
+
+
+
 -- Quick admin checks (additional and optional to run)
 -- Recent orders:
 --   SELECT * FROM v_orders_admin ORDER BY placed_at DESC LIMIT 10;